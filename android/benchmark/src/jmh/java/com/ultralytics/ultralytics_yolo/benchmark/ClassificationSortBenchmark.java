@@ -0,0 +1,44 @@
+// Ultralytics 🚀 AGPL-3.0 License - https://ultralytics.com/license
+
+package com.ultralytics.ultralytics_yolo.benchmark;
+
+import com.ultralytics.ultralytics_yolo.predict.TensorUtils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ranking of classifier scores as done for every classified frame.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ClassificationSortBenchmark {
+    @Param({"10", "100", "1000"})
+    public int numClasses;
+
+    private float[] scores;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(0);
+        scores = new float[numClasses];
+        for (int i = 0; i < numClasses; i++) {
+            scores[i] = random.nextFloat();
+        }
+    }
+
+    @Benchmark
+    public int[] rankByScore() {
+        return TensorUtils.rankByScore(scores);
+    }
+}
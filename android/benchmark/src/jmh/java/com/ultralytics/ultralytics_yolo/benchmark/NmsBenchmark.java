@@ -0,0 +1,73 @@
+// Ultralytics 🚀 AGPL-3.0 License - https://ultralytics.com/license
+
+package com.ultralytics.ultralytics_yolo.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Detection decoding and NMS. The plugin runs this step in native code built for Android only,
+ * so the benchmark measures the line-for-line Java port in {@link Detections}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class NmsBenchmark {
+    @Param({"320", "640"})
+    public int inputSize;
+
+    @Param({"1", "80"})
+    public int numClasses;
+
+    // Share of anchors above the confidence threshold, which drives the NMS cost
+    @Param({"0.01", "0.1"})
+    public float candidateRatio;
+
+    // Classes scored, 0 for all of them
+    @Param({"0", "3"})
+    public int filteredClasses;
+
+    private float[] output;
+    private int anchors;
+    private int[] classFilter;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(0);
+        anchors = Detections.anchorCount(inputSize);
+        classFilter = filteredClasses > 0 ? new int[Math.min(filteredClasses, numClasses)] : null;
+        if (classFilter != null) {
+            for (int c = 0; c < classFilter.length; c++) {
+                classFilter[c] = c;
+            }
+        }
+        output = new float[(4 + numClasses) * anchors];
+
+        for (int i = 0; i < anchors; i++) {
+            // Clustered boxes so suppression has overlaps to resolve
+            output[i] = random.nextInt(8) / 8.f + random.nextFloat() * 0.05f;
+            output[anchors + i] = random.nextInt(8) / 8.f + random.nextFloat() * 0.05f;
+            output[2 * anchors + i] = 0.05f + random.nextFloat() * 0.1f;
+            output[3 * anchors + i] = 0.05f + random.nextFloat() * 0.1f;
+
+            boolean candidate = random.nextFloat() < candidateRatio;
+            for (int c = 0; c < numClasses; c++) {
+                output[(4 + c) * anchors + i] = random.nextFloat() * (candidate ? 1.f : 0.25f);
+            }
+        }
+    }
+
+    @Benchmark
+    public float[][] detect() {
+        return Detections.detect(output, anchors, 4 + numClasses, 0.25f, 0.45f, 30, numClasses, classFilter, null);
+    }
+}
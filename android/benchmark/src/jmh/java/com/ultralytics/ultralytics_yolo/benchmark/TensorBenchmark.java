@@ -0,0 +1,69 @@
+// Ultralytics 🚀 AGPL-3.0 License - https://ultralytics.com/license
+
+package com.ultralytics.ultralytics_yolo.benchmark;
+
+import com.ultralytics.ultralytics_yolo.predict.TensorUtils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Input tensor packing and detection output reading around the interpreter call.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TensorBenchmark {
+    @Param({"320", "640"})
+    public int inputSize;
+
+    @Param({"1", "80"})
+    public int numClasses;
+
+    private int[] pixels;
+    private ByteBuffer inputBuffer;
+    private ByteBuffer outputBuffer;
+    private float[][] output;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(0);
+        pixels = new int[inputSize * inputSize];
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = random.nextInt();
+        }
+        inputBuffer = ByteBuffer.allocateDirect(pixels.length * 3 * 4).order(ByteOrder.nativeOrder());
+
+        // [4 + classes][anchors] for strides 8, 16 and 32
+        int anchors = Detections.anchorCount(inputSize);
+        output = new float[4 + numClasses][anchors];
+        outputBuffer = ByteBuffer.allocateDirect(output.length * anchors * 4).order(ByteOrder.nativeOrder());
+        while (outputBuffer.hasRemaining()) {
+            outputBuffer.putFloat(random.nextFloat());
+        }
+    }
+
+    @Benchmark
+    public ByteBuffer normalizePixels() {
+        inputBuffer.rewind();
+        TensorUtils.normalizePixels(pixels, pixels.length, inputBuffer);
+        return inputBuffer;
+    }
+
+    @Benchmark
+    public float[][] readOutput() {
+        TensorUtils.readOutput(outputBuffer, output);
+        return output;
+    }
+}
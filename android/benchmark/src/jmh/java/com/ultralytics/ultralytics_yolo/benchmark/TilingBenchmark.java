@@ -0,0 +1,78 @@
+// Ultralytics 🚀 AGPL-3.0 License - https://ultralytics.com/license
+
+package com.ultralytics.ultralytics_yolo.benchmark;
+
+import com.ultralytics.ultralytics_yolo.predict.detect.Tiling;
+import com.ultralytics.ultralytics_yolo.predict.engine.DetectionEngine;
+import com.ultralytics.ultralytics_yolo.replay.SyntheticBackend;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tiled inference throughput in images per second against the number of tiles. Each tile goes
+ * through the crop and the plugin's {@link DetectionEngine} with a {@link SyntheticBackend} and the
+ * Java NMS port, and the tiles are merged with the plugin's {@link Tiling#merge}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class TilingBenchmark {
+    private static final int INPUT_SIZE = 320;
+    private static final int NUM_CLASSES = 80;
+    private static final float OVERLAP = 0.2f;
+
+    // Tiles per side, the image is sized for a gridSize x gridSize layout
+    @Param({"1", "2", "3", "4"})
+    public int gridSize;
+
+    // Simulated interpreter time per tile, 0 to measure the plugin's own overhead
+    @Param({"0", "5"})
+    public float modelLatencyMs;
+
+    private int side;
+    private int[] image;
+    private int[][] tiles;
+    private DetectionEngine engine;
+
+    @Setup
+    public void setup() {
+        final int step = Math.round(INPUT_SIZE * (1 - OVERLAP));
+        side = INPUT_SIZE + (gridSize - 1) * step;
+        Random random = new Random(0);
+        image = new int[side * side];
+        for (int i = 0; i < image.length; i++) {
+            image[i] = 0xFF000000 | random.nextInt(0x1000000);
+        }
+        tiles = Tiling.layout(side, side, INPUT_SIZE, OVERLAP);
+
+        engine = new DetectionEngine(INPUT_SIZE, Detections::detectBatch);
+        engine.setRunner(new SyntheticBackend(INPUT_SIZE, NUM_CLASSES, modelLatencyMs), NUM_CLASSES, INPUT_SIZE);
+    }
+
+    @Benchmark
+    public float[][] tiledImage() {
+        List<float[][]> detections = new ArrayList<>(tiles.length);
+        for (int[] tile : tiles) {
+            float[][] tileDetections = engine.predict((size, pixels) -> {
+                for (int row = 0; row < tile[3]; row++) {
+                    System.arraycopy(image, (tile[1] + row) * side + tile[0], pixels, row * size, tile[2]);
+                }
+            });
+            Tiling.toImageCoordinates(tileDetections, tile, side, side);
+            detections.add(tileDetections);
+        }
+        return Tiling.merge(detections, 0.45f, 300);
+    }
+}
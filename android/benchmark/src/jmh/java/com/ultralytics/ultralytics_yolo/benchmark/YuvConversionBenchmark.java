@@ -0,0 +1,71 @@
+// Ultralytics 🚀 AGPL-3.0 License - https://ultralytics.com/license
+
+package com.ultralytics.ultralytics_yolo.benchmark;
+
+import com.ultralytics.ultralytics_yolo.YuvUtils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * YUV_420_888 to NV21 conversion as done for every camera frame by {@code ImageUtils.toBitmap}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class YuvConversionBenchmark {
+    private static final int ROW_PADDING = 64; // Camera buffers usually pad rows
+
+    @Param({"640x480", "1280x720", "1920x1080"})
+    public String resolution;
+
+    // 1 for planar (I420-like) chroma, 2 for the interleaved layout most devices deliver
+    @Param({"1", "2"})
+    public int chromaPixelStride;
+
+    private int width;
+    private int height;
+    private ByteBuffer[] planes;
+    private int[] rowStrides;
+    private int[] pixelStrides;
+    private byte[] nv21;
+
+    @Setup
+    public void setup() {
+        String[] size = resolution.split("x");
+        width = Integer.parseInt(size[0]);
+        height = Integer.parseInt(size[1]);
+
+        int chromaRowStride = width / 2 * chromaPixelStride + ROW_PADDING;
+        rowStrides = new int[]{width + ROW_PADDING, chromaRowStride, chromaRowStride};
+        pixelStrides = new int[]{1, chromaPixelStride, chromaPixelStride};
+
+        Random random = new Random(0);
+        planes = new ByteBuffer[3];
+        for (int i = 0; i < planes.length; i++) {
+            int rows = i == 0 ? height : height / 2;
+            byte[] bytes = new byte[rows * rowStrides[i]];
+            random.nextBytes(bytes);
+            planes[i] = ByteBuffer.allocateDirect(bytes.length);
+            planes[i].put(bytes);
+            planes[i].rewind();
+        }
+        nv21 = new byte[width * height * 3 / 2];
+    }
+
+    @Benchmark
+    public byte[] toNv21() {
+        YuvUtils.toNv21(planes, rowStrides, pixelStrides, 0, 0, width, height, nv21);
+        return nv21;
+    }
+}
@@ -0,0 +1,128 @@
+// Ultralytics 🚀 AGPL-3.0 License - https://ultralytics.com/license
+
+package com.ultralytics.ultralytics_yolo.benchmark;
+
+import com.ultralytics.ultralytics_yolo.predict.engine.Zones;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Java port of {@code detect} in {@code tflite_detect.cpp}: per-anchor class argmax over the
+ * filtered classes, confidence and zone filtering, descending sort and greedy class-agnostic NMS.
+ * Keep in sync with the native code.
+ */
+public final class Detections {
+    private Detections() {
+    }
+
+    /**
+     * Number of anchors of a model with strides 8, 16 and 32 at the given square input size.
+     */
+    public static int anchorCount(int inputSize) {
+        int anchors = 0;
+        for (int stride = 8; stride <= 32; stride *= 2) {
+            anchors += (inputSize / stride) * (inputSize / stride);
+        }
+        return anchors;
+    }
+
+    /**
+     * Java port of {@code postprocessBatch}, usable as a
+     * {@link com.ultralytics.ultralytics_yolo.predict.engine.DetectionEngine.Postprocessor}.
+     *
+     * @param data [batch][h][w] output.
+     */
+    public static float[][][] detectBatch(float[] data, int batch, int w, int h, float confidenceThreshold,
+                                          float iouThreshold, int numItemsThreshold, int numClasses,
+                                          int[] classFilter, float[][] zones) {
+        float[][][] results = new float[batch][][];
+        for (int b = 0; b < batch; b++) {
+            float[] slice = batch == 1 ? data : Arrays.copyOfRange(data, b * w * h, (b + 1) * w * h);
+            results[b] = detect(slice, w, h, confidenceThreshold, iouThreshold, numItemsThreshold, numClasses,
+                    classFilter, zones);
+        }
+        return results;
+    }
+
+    /**
+     * @param data [h][w] output with h = 4 box rows + numClasses score rows and w anchors.
+     * @return [x, y, width, height, confidence, index] rows.
+     */
+    public static float[][] detect(float[] data, int w, int h, float confidenceThreshold, float iouThreshold,
+                            int numItemsThreshold, int numClasses) {
+        return detect(data, w, h, confidenceThreshold, iouThreshold, numItemsThreshold, numClasses, null, null);
+    }
+
+    /**
+     * @param classFilter Class indices to score, or null for every class.
+     * @param zones       Zones the box centers must lie in, or null.
+     */
+    public static float[][] detect(float[] data, int w, int h, float confidenceThreshold, float iouThreshold,
+                                   int numItemsThreshold, int numClasses, int[] classFilter, float[][] zones) {
+        List<float[]> proposals = new ArrayList<>();
+        final int[] classes = classIndices(classFilter, numClasses);
+
+        for (int i = 0; i < w; ++i) {
+            int classIndex = 0;
+            float classScore = -Float.MAX_VALUE;
+            for (int c : classes) {
+                float score = data[(c + 4) * w + i];
+                if (score > classScore) {
+                    classIndex = c;
+                    classScore = score;
+                }
+            }
+
+            if (classScore > confidenceThreshold && Zones.contains(zones, data[i], data[w + i])) {
+                proposals.add(new float[]{data[i], data[w + i], data[2 * w + i], data[3 * w + i], classScore, classIndex});
+            }
+        }
+
+        proposals.sort((a, b) -> Float.compare(b[4], a[4]));
+
+        List<float[]> picked = new ArrayList<>();
+        for (float[] a : proposals) {
+            boolean keep = true;
+            for (float[] b : picked) {
+                float inter = intersectionArea(a, b);
+                if (inter / (a[2] * a[3] + b[2] * b[3] - inter) > iouThreshold) {
+                    keep = false;
+                }
+            }
+            if (keep) {
+                picked.add(a);
+            }
+        }
+
+        // Center boxes to clamped corner boxes
+        float[][] objects = new float[Math.min(picked.size(), numItemsThreshold)][];
+        for (int i = 0; i < objects.length; i++) {
+            float[] obj = picked.get(i);
+            float x0 = Math.max(0.f, obj[0] - obj[2] / 2);
+            float y0 = Math.max(0.f, obj[1] - obj[3] / 2);
+            float x1 = Math.min(1.f, obj[0] + obj[2] / 2);
+            float y1 = Math.min(1.f, obj[1] + obj[3] / 2);
+            objects[i] = new float[]{x0, y0, x1 - x0, y1 - y0, obj[4], obj[5]};
+        }
+        return objects;
+    }
+
+    private static int[] classIndices(int[] classFilter, int numClasses) {
+        if (classFilter != null) {
+            return Arrays.stream(classFilter).filter(c -> c >= 0 && c < numClasses).toArray();
+        }
+        int[] classes = new int[numClasses];
+        for (int c = 0; c < numClasses; c++) {
+            classes[c] = c;
+        }
+        return classes;
+    }
+
+    private static float intersectionArea(float[] a, float[] b) {
+        float width = Math.min(a[0] + a[2], b[0] + b[2]) - Math.max(a[0], b[0]);
+        float height = Math.min(a[1] + a[3], b[1] + b[3]) - Math.max(a[1], b[1]);
+        return width > 0 && height > 0 ? width * height : 0;
+    }
+}
@@ -0,0 +1,153 @@
+// Ultralytics 🚀 AGPL-3.0 License - https://ultralytics.com/license
+
+package com.ultralytics.ultralytics_yolo.replay;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * One recorded YUV_420_888 camera frame: the raw Y, U and V plane bytes with their strides, as
+ * delivered by {@code ImageProxy}.
+ * <p>
+ * Frames are stored big-endian, one after another, so a recording can be a single file or a
+ * directory of files replayed in name order:
+ * <pre>
+ * int   magic ('YUVF')
+ * long  timestamp in nanoseconds
+ * int   width, height, rotation degrees
+ * 3 x { int rowStride, int pixelStride, int length, byte[length] }
+ * </pre>
+ */
+public class RecordedFrame {
+    private static final int MAGIC = 0x59555646;
+
+    public final long timestampNanos;
+    public final int width;
+    public final int height;
+    public final int rotationDegrees;
+    public final ByteBuffer[] planes;
+    public final int[] rowStrides;
+    public final int[] pixelStrides;
+
+    public RecordedFrame(long timestampNanos, int width, int height, int rotationDegrees,
+                         ByteBuffer[] planes, int[] rowStrides, int[] pixelStrides) {
+        this.timestampNanos = timestampNanos;
+        this.width = width;
+        this.height = height;
+        this.rotationDegrees = rotationDegrees;
+        this.planes = planes;
+        this.rowStrides = rowStrides;
+        this.pixelStrides = pixelStrides;
+    }
+
+    /**
+     * Reads every frame of a recording file, or of all files in a recording directory.
+     */
+    public static List<RecordedFrame> readAll(File path) throws IOException {
+        List<RecordedFrame> frames = new ArrayList<>();
+        File[] files = path.isDirectory() ? path.listFiles(File::isFile) : new File[]{path};
+        if (files == null) {
+            throw new IOException("Cannot list " + path);
+        }
+        Arrays.sort(files);
+
+        for (File file : files) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+                RecordedFrame frame;
+                while ((frame = read(in)) != null) {
+                    frames.add(frame);
+                }
+            }
+        }
+        return frames;
+    }
+
+    /**
+     * @return The next frame, or null at the end of the stream.
+     */
+    public static RecordedFrame read(DataInputStream in) throws IOException {
+        final int magic;
+        try {
+            magic = in.readInt();
+        } catch (EOFException e) {
+            return null;
+        }
+        if (magic != MAGIC) {
+            throw new IOException("Not a recorded YUV frame");
+        }
+
+        long timestampNanos = in.readLong();
+        int width = in.readInt();
+        int height = in.readInt();
+        int rotationDegrees = in.readInt();
+
+        ByteBuffer[] planes = new ByteBuffer[3];
+        int[] rowStrides = new int[3];
+        int[] pixelStrides = new int[3];
+        for (int i = 0; i < 3; i++) {
+            rowStrides[i] = in.readInt();
+            pixelStrides[i] = in.readInt();
+            byte[] bytes = new byte[in.readInt()];
+            in.readFully(bytes);
+            planes[i] = ByteBuffer.allocateDirect(bytes.length);
+            planes[i].put(bytes);
+            planes[i].rewind();
+        }
+        return new RecordedFrame(timestampNanos, width, height, rotationDegrees, planes, rowStrides, pixelStrides);
+    }
+
+    public void write(DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeLong(timestampNanos);
+        out.writeInt(width);
+        out.writeInt(height);
+        out.writeInt(rotationDegrees);
+        for (int i = 0; i < 3; i++) {
+            out.writeInt(rowStrides[i]);
+            out.writeInt(pixelStrides[i]);
+            byte[] bytes = new byte[planes[i].capacity()];
+            planes[i].rewind();
+            planes[i].get(bytes);
+            planes[i].rewind();
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Generates noise frames in the interleaved chroma layout most devices deliver, for runs
+     * without a recording.
+     */
+    public static List<RecordedFrame> synthesize(int count, int width, int height, int rotationDegrees, double fps) {
+        Random random = new Random(0);
+        List<RecordedFrame> frames = new ArrayList<>(count);
+        int[] rowStrides = {width, width, width};
+        int[] pixelStrides = {1, 2, 2};
+
+        for (int f = 0; f < count; f++) {
+            ByteBuffer[] planes = new ByteBuffer[3];
+            for (int i = 0; i < 3; i++) {
+                // Chroma planes end on the last sample of the last row, like camera buffers
+                int length = i == 0 ? width * height : width * (height / 2 - 1) + width - 1;
+                byte[] bytes = new byte[length];
+                random.nextBytes(bytes);
+                planes[i] = ByteBuffer.allocateDirect(length);
+                planes[i].put(bytes);
+                planes[i].rewind();
+            }
+            long timestampNanos = fps > 0 ? (long) (f * 1e9 / fps) : 0;
+            frames.add(new RecordedFrame(timestampNanos, width, height, rotationDegrees, planes, rowStrides, pixelStrides));
+        }
+        return frames;
+    }
+}
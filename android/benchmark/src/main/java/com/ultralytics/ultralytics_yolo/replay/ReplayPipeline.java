@@ -0,0 +1,144 @@
+// Ultralytics 🚀 AGPL-3.0 License - https://ultralytics.com/license
+
+package com.ultralytics.ultralytics_yolo.replay;
+
+import com.ultralytics.ultralytics_yolo.YuvUtils;
+import com.ultralytics.ultralytics_yolo.benchmark.Detections;
+import com.ultralytics.ultralytics_yolo.predict.engine.DetectionEngine;
+import com.ultralytics.ultralytics_yolo.predict.engine.StageRecorder;
+import com.ultralytics.ultralytics_yolo.predict.engine.TensorRunner;
+
+/**
+ * The stages of {@code TfliteDetector.predict(ImageProxy, boolean)} for recorded frames.
+ * <p>
+ * Plane copying and everything from input packing to decoding are the plugin's own code, the
+ * latter through the same {@link DetectionEngine} the detector uses. The pieces that need Android
+ * are replaced by plain Java equivalents of the same shape: NV21 to ARGB conversion stands in for
+ * the JPEG round trip, nearest-neighbour sampling for the Canvas draw, a {@link TensorRunner} stub
+ * for the interpreter and the Java NMS port for the native postprocess.
+ */
+public class ReplayPipeline {
+    public static final int STAGE_CONVERT = 0;
+    public static final int STAGE_PREPROCESS = 1;
+    public static final int STAGE_SET_INPUT = StageRecorder.STAGE_SET_INPUT;
+    public static final int STAGE_INFERENCE = StageRecorder.STAGE_INFERENCE;
+    public static final int STAGE_POSTPROCESS = StageRecorder.STAGE_POSTPROCESS;
+    public static final int STAGE_COUNT = 5;
+    public static final String[] STAGE_NAMES = {"convert", "preprocess", "setInput", "inference", "postprocess"};
+
+    private final DetectionEngine engine;
+    private final int inputSize;
+    private final int[] inputPixels;
+    private byte[] nv21 = new byte[0];
+    private int[] argb = new int[0];
+    private long[] stageNanos;
+    private float[][] result;
+
+    public ReplayPipeline(TensorRunner runner, int numClasses, float confidenceThreshold, float iouThreshold,
+                          int numItemsThreshold) {
+        this.inputSize = runner.getInputShape()[1];
+
+        engine = new DetectionEngine(inputSize, Detections::detectBatch);
+        engine.setRunner(runner, numClasses, inputSize);
+        engine.setConfidenceThreshold(confidenceThreshold);
+        engine.setIouThreshold(iouThreshold);
+        engine.setNumItemsThreshold(numItemsThreshold);
+        engine.setStageRecorder((stage, startNanos) -> stageNanos[stage] = System.nanoTime() - startNanos);
+
+        inputPixels = new int[inputSize * inputSize];
+    }
+
+    /**
+     * Runs one frame through every stage.
+     *
+     * @param stageNanos Receives the time spent in each stage, indexed by {@code STAGE_*}.
+     * @return [x, y, width, height, confidence, index] detections.
+     */
+    public float[][] process(RecordedFrame frame, long[] stageNanos) {
+        long start = System.nanoTime();
+        final int pixelCount = frame.width * frame.height;
+        if (nv21.length != pixelCount * 3 / 2) {
+            nv21 = new byte[pixelCount * 3 / 2];
+            argb = new int[pixelCount];
+        }
+        YuvUtils.toNv21(frame.planes, frame.rowStrides, frame.pixelStrides, 0, 0, frame.width, frame.height, nv21);
+        nv21ToArgb(nv21, frame.width, frame.height, argb);
+        stageNanos[STAGE_CONVERT] = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        drawCentered(argb, frame.width, frame.height, frame.rotationDegrees, inputPixels, inputSize);
+        stageNanos[STAGE_PREPROCESS] = System.nanoTime() - start;
+
+        this.stageNanos = stageNanos;
+        // The live path, which is the one that records stage times
+        result = new float[0][];
+        engine.process((size, pixels) -> System.arraycopy(inputPixels, 0, pixels, 0, size * size),
+                (detections, inferenceTimeMs) -> result = detections);
+        return result;
+    }
+
+    /**
+     * BT.601 full range NV21 to opaque ARGB.
+     */
+    private static void nv21ToArgb(byte[] nv21, int width, int height, int[] argb) {
+        final int pixelCount = width * height;
+        for (int row = 0; row < height; row++) {
+            int uvOffset = pixelCount + (row >> 1) * width;
+            for (int col = 0; col < width; col++) {
+                int y = nv21[row * width + col] & 0xFF;
+                int uvIndex = uvOffset + (col & ~1);
+                int v = (nv21[uvIndex] & 0xFF) - 128;
+                int u = (nv21[uvIndex + 1] & 0xFF) - 128;
+
+                int r = clamp(y + ((91881 * v) >> 16));
+                int g = clamp(y - ((22544 * u + 46793 * v) >> 16));
+                int b = clamp(y + ((116129 * u) >> 16));
+                argb[row * width + col] = 0xFF000000 | (r << 16) | (g << 8) | b;
+            }
+        }
+    }
+
+    private static int clamp(int value) {
+        return value < 0 ? 0 : Math.min(value, 255);
+    }
+
+    /**
+     * Rotates the frame and scales it to cover a {@code size} square, cropping the longer side.
+     */
+    private static void drawCentered(int[] source, int width, int height, int rotationDegrees, int[] target, int size) {
+        final boolean transpose = rotationDegrees % 180 != 0;
+        final float scale = (float) Math.min(transpose ? height : width, transpose ? width : height) / size;
+        final float center = size / 2f;
+
+        for (int v = 0; v < size; v++) {
+            for (int u = 0; u < size; u++) {
+                // Target pixel relative to the center, in source pixels before rotation
+                float dx = (u + 0.5f - center) * scale;
+                float dy = (v + 0.5f - center) * scale;
+                float sx;
+                float sy;
+                switch (rotationDegrees) {
+                    case 90:
+                        sx = dy;
+                        sy = -dx;
+                        break;
+                    case 180:
+                        sx = -dx;
+                        sy = -dy;
+                        break;
+                    case 270:
+                        sx = -dy;
+                        sy = dx;
+                        break;
+                    default:
+                        sx = dx;
+                        sy = dy;
+                        break;
+                }
+                int x = Math.min(width - 1, Math.max(0, (int) (sx + width / 2f)));
+                int y = Math.min(height - 1, Math.max(0, (int) (sy + height / 2f)));
+                target[v * size + u] = source[y * width + x];
+            }
+        }
+    }
+}
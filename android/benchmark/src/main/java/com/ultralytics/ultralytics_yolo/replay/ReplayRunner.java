@@ -0,0 +1,202 @@
+// Ultralytics 🚀 AGPL-3.0 License - https://ultralytics.com/license
+
+package com.ultralytics.ultralytics_yolo.replay;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Replays recorded camera frames through the detection pipeline without a device.
+ * <p>
+ * With a frame rate, frames are delivered on their own thread at that rate and the pipeline
+ * keeps only the latest one, like CameraX {@code STRATEGY_KEEP_ONLY_LATEST}, so frames arriving
+ * while the pipeline is busy are dropped. Without a frame rate, frames are processed back to back.
+ * <pre>
+ * ./gradlew :benchmark:run --args="[recording] [--fps 30] [--frames 300] [--size 640x480]
+ *     [--rotation 90] [--input-size 320] [--classes 80] [--model-latency 20]"
+ * </pre>
+ * Without a recording, {@code --frames} synthetic frames of {@code --size} are generated.
+ */
+public class ReplayRunner {
+    private static final float CONFIDENCE_THRESHOLD = 0.25f;
+    private static final float IOU_THRESHOLD = 0.45f;
+    private static final int NUM_ITEMS_THRESHOLD = 30;
+
+    private final ReplayPipeline pipeline;
+    private final long[][] stageNanos;
+    private final long[] latencyNanos;
+    private int processed = 0;
+    private int dropped = 0;
+
+    private ReplayRunner(ReplayPipeline pipeline, int frameCount) {
+        this.pipeline = pipeline;
+        this.stageNanos = new long[ReplayPipeline.STAGE_COUNT][frameCount];
+        this.latencyNanos = new long[frameCount];
+    }
+
+    public static void main(String[] args) throws Exception {
+        String recording = null;
+        double fps = 0;
+        int frameCount = 300;
+        int width = 640;
+        int height = 480;
+        int rotation = 90;
+        int inputSize = 320;
+        int numClasses = 80;
+        float modelLatencyMs = 20;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--fps":
+                    fps = Double.parseDouble(args[++i]);
+                    break;
+                case "--frames":
+                    frameCount = Integer.parseInt(args[++i]);
+                    break;
+                case "--size":
+                    String[] size = args[++i].split("x");
+                    width = Integer.parseInt(size[0]);
+                    height = Integer.parseInt(size[1]);
+                    break;
+                case "--rotation":
+                    rotation = Integer.parseInt(args[++i]);
+                    break;
+                case "--input-size":
+                    inputSize = Integer.parseInt(args[++i]);
+                    break;
+                case "--classes":
+                    numClasses = Integer.parseInt(args[++i]);
+                    break;
+                case "--model-latency":
+                    modelLatencyMs = Float.parseFloat(args[++i]);
+                    break;
+                default:
+                    recording = args[i];
+                    break;
+            }
+        }
+
+        List<RecordedFrame> frames = recording != null ?
+                RecordedFrame.readAll(new File(recording)) :
+                RecordedFrame.synthesize(frameCount, width, height, rotation, fps);
+        if (frames.isEmpty()) {
+            System.err.println("No frames to replay");
+            System.exit(1);
+        }
+
+        SyntheticBackend backend = new SyntheticBackend(inputSize, numClasses, modelLatencyMs);
+        ReplayRunner runner = new ReplayRunner(new ReplayPipeline(backend, numClasses, CONFIDENCE_THRESHOLD,
+                IOU_THRESHOLD, NUM_ITEMS_THRESHOLD), frames.size());
+
+        long start = System.nanoTime();
+        if (fps > 0) {
+            runner.runAtRate(frames, fps);
+        } else {
+            runner.runBackToBack(frames);
+        }
+        runner.report(frames.size(), System.nanoTime() - start);
+    }
+
+    private void runBackToBack(List<RecordedFrame> frames) {
+        long[] frameStages = new long[ReplayPipeline.STAGE_COUNT];
+        for (RecordedFrame frame : frames) {
+            long start = System.nanoTime();
+            pipeline.process(frame, frameStages);
+            record(frameStages, System.nanoTime() - start);
+        }
+    }
+
+    private void runAtRate(List<RecordedFrame> frames, double fps) throws InterruptedException {
+        final AtomicReference<Arrival> latest = new AtomicReference<>();
+        final Arrival end = new Arrival(null, 0);
+
+        Thread camera = new Thread(() -> {
+            final long periodNanos = (long) (1e9 / fps);
+            final long start = System.nanoTime();
+            for (int i = 0; i < frames.size(); i++) {
+                long due = start + i * periodNanos;
+                long wait;
+                while ((wait = due - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                // Replacing a frame the pipeline has not picked up yet drops it
+                if (latest.getAndSet(new Arrival(frames.get(i), System.nanoTime())) != null) {
+                    synchronized (this) {
+                        dropped++;
+                    }
+                }
+            }
+            while (!latest.compareAndSet(null, end)) {
+                Thread.yield();
+            }
+        }, "replay-camera");
+        camera.start();
+
+        long[] frameStages = new long[ReplayPipeline.STAGE_COUNT];
+        while (true) {
+            Arrival arrival = latest.getAndSet(null);
+            if (arrival == null) {
+                LockSupport.parkNanos(100_000);
+                continue;
+            }
+            if (arrival == end) {
+                break;
+            }
+            pipeline.process(arrival.frame, frameStages);
+            record(frameStages, System.nanoTime() - arrival.nanos);
+        }
+        camera.join();
+    }
+
+    private void record(long[] frameStages, long latency) {
+        for (int s = 0; s < ReplayPipeline.STAGE_COUNT; s++) {
+            stageNanos[s][processed] = frameStages[s];
+        }
+        latencyNanos[processed] = latency;
+        processed++;
+    }
+
+    private void report(int offered, long elapsedNanos) {
+        int droppedFrames;
+        synchronized (this) {
+            droppedFrames = dropped;
+        }
+
+        System.out.printf(Locale.ROOT, "frames     %d offered, %d processed, %d dropped%n", offered, processed, droppedFrames);
+        System.out.printf(Locale.ROOT, "throughput %.1f fps over %.2f s%n", processed / (elapsedNanos / 1e9), elapsedNanos / 1e9);
+        System.out.printf(Locale.ROOT, "%-12s %9s %9s %9s%n", "ms", "p50", "p95", "p99");
+        for (int s = 0; s < ReplayPipeline.STAGE_COUNT; s++) {
+            printPercentiles(ReplayPipeline.STAGE_NAMES[s], stageNanos[s]);
+        }
+        printPercentiles("latency", latencyNanos);
+    }
+
+    private void printPercentiles(String name, long[] nanos) {
+        long[] sorted = Arrays.copyOf(nanos, processed);
+        Arrays.sort(sorted);
+        System.out.printf(Locale.ROOT, "%-12s %9.3f %9.3f %9.3f%n", name,
+                percentile(sorted, 0.5), percentile(sorted, 0.95), percentile(sorted, 0.99));
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, rank)] / 1e6;
+    }
+
+    private static class Arrival {
+        final RecordedFrame frame;
+        final long nanos;
+
+        Arrival(RecordedFrame frame, long nanos) {
+            this.frame = frame;
+            this.nanos = nanos;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+// Ultralytics 🚀 AGPL-3.0 License - https://ultralytics.com/license
+
+package com.ultralytics.ultralytics_yolo.replay;
+
+import com.ultralytics.ultralytics_yolo.benchmark.Detections;
+import com.ultralytics.ultralytics_yolo.predict.engine.TensorRunner;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Stand-in model for hosts without an accelerator or TFLite runtime. Each run takes a fixed
+ * amount of time and writes a precomputed detection output with a few confident boxes, so the
+ * postprocess stage sees realistic work.
+ */
+public class SyntheticBackend implements TensorRunner {
+    private static final float CANDIDATE_RATIO = 0.01f;
+
+    private final int inputSize;
+    private final int numClasses;
+    private final long latencyNanos;
+    private final int anchors;
+    private final float[] output;
+
+    public SyntheticBackend(int inputSize, int numClasses, float latencyMs) {
+        this.inputSize = inputSize;
+        this.numClasses = numClasses;
+        this.latencyNanos = (long) (latencyMs * 1e6);
+        this.anchors = Detections.anchorCount(inputSize);
+        this.output = new float[(4 + numClasses) * anchors];
+
+        Random random = new Random(0);
+        for (int i = 0; i < anchors; i++) {
+            output[i] = random.nextFloat();
+            output[anchors + i] = random.nextFloat();
+            output[2 * anchors + i] = 0.05f + random.nextFloat() * 0.2f;
+            output[3 * anchors + i] = 0.05f + random.nextFloat() * 0.2f;
+
+            boolean candidate = random.nextFloat() < CANDIDATE_RATIO;
+            for (int c = 0; c < numClasses; c++) {
+                output[(4 + c) * anchors + i] = random.nextFloat() * (candidate ? 1.f : 0.25f);
+            }
+        }
+    }
+
+    public int getInputSize() {
+        return inputSize;
+    }
+
+    public int getNumClasses() {
+        return numClasses;
+    }
+
+    @Override
+    public int[] getInputShapeSignature() {
+        return getInputShape();
+    }
+
+    @Override
+    public int[] getInputShape() {
+        return new int[]{1, inputSize, inputSize, 3};
+    }
+
+    @Override
+    public void resizeInput(int[] shape) {
+        throw new UnsupportedOperationException("Fixed input shape");
+    }
+
+    @Override
+    public int getOutputCount() {
+        return 1;
+    }
+
+    @Override
+    public int[] getOutputShape(int index) {
+        return new int[]{1, 4 + numClasses, anchors};
+    }
+
+    @Override
+    public int getOutputBytes(int index) {
+        return output.length * 4;
+    }
+
+    @Override
+    public void run(ByteBuffer input, ByteBuffer[] outputs) {
+        final long deadline = System.nanoTime() + latencyNanos;
+
+        outputs[0].rewind();
+        outputs[0].asFloatBuffer().put(output);
+
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    @Override
+    public void close() {
+    }
+}
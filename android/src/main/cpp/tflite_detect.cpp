@@ -1,6 +1,8 @@
 #include <jni.h>
 #include "ultralytics.h"
 
+#include <opencv2/imgproc/imgproc.hpp>
+
 static void qsort_descent_inplace(std::vector<DetectedObject> &objects, int left, int right) {
     int i = left;
     int j = right;
@@ -78,60 +80,97 @@ static void nms_sorted_bboxes(const std::vector<DetectedObject> &objects, std::v
     }
 }
 
-extern "C"
-JNIEXPORT jobjectArray JNICALL
-Java_com_ultralytics_ultralytics_1yolo_predict_detect_TfliteDetector_postprocess(JNIEnv *env,
-                                                                                 jobject thiz,
-                                                                                 jobjectArray recognitions,
-                                                                                 jint w, jint h,
-                                                                                 jfloat confidence_threshold,
-                                                                                 jfloat iou_threshold,
-                                                                                 jint num_items_threshold,
-                                                                                 jint num_classes) {
-    std::vector<DetectedObject> proposals;
-    std::vector<DetectedObject> objects;
+// even-odd test of a point against polygons laid out [x0, y0, x1, y1, ...],
+// no zones means the whole image
+static bool in_zones(const std::vector<std::vector<float>> &zones, float x, float y) {
+    if (zones.empty())
+        return true;
+
+    for (const std::vector<float> &polygon : zones) {
+        const int count = polygon.size() / 2;
+        bool inside = false;
+        for (int i = 0, j = count - 1; i < count; j = i++) {
+            float xi = polygon[2 * i], yi = polygon[2 * i + 1];
+            float xj = polygon[2 * j], yj = polygon[2 * j + 1];
+            if ((yi > y) != (yj > y) && x < (xj - xi) * (y - yi) / (yj - yi) + xi)
+                inside = !inside;
+        }
+        if (inside)
+            return true;
+    }
+    return false;
+}
 
-    // Initialize the C++ vector
-    std::vector<std::vector<float>> vec(h, std::vector<float>(w, 0.0f));
-    for (int i = 0; i < h; ++i) {
-        jfloatArray row = (jfloatArray) env->GetObjectArrayElement(recognitions, i);
-        jfloat *rowData = env->GetFloatArrayElements(row, JNI_FALSE);
+// class indices to score, every class when the filter is null. indices the model does not
+// have are skipped, so a filter without any valid index yields no detections
+static std::vector<int> read_class_filter(JNIEnv *env, jintArray class_filter, int num_classes) {
+    std::vector<int> classes;
+    if (class_filter == NULL) {
+        classes.resize(num_classes);
+        for (int c = 0; c < num_classes; c++)
+            classes[c] = c;
+        return classes;
+    }
 
-        for (int j = 0; j < w; ++j) {
-            vec[i][j] = rowData[j];
-        }
+    const int count = env->GetArrayLength(class_filter);
+    std::vector<jint> indices(count);
+    env->GetIntArrayRegion(class_filter, 0, count, indices.data());
+    for (jint c : indices) {
+        if (c >= 0 && c < num_classes)
+            classes.push_back(c);
+    }
+    return classes;
+}
 
-        // Release the local references
-        env->ReleaseFloatArrayElements(row, rowData, JNI_ABORT);
-        env->DeleteLocalRef(row);
+static std::vector<std::vector<float>> read_zones(JNIEnv *env, jobjectArray zones) {
+    std::vector<std::vector<float>> polygons;
+    if (zones == NULL)
+        return polygons;
+
+    const int count = env->GetArrayLength(zones);
+    for (int z = 0; z < count; z++) {
+        jfloatArray zone = (jfloatArray) env->GetObjectArrayElement(zones, z);
+        std::vector<float> polygon(env->GetArrayLength(zone));
+        env->GetFloatArrayRegion(zone, 0, polygon.size(), polygon.data());
+        env->DeleteLocalRef(zone);
+        polygons.push_back(polygon);
     }
+    return polygons;
+}
+
+// decode a single [h][w] output slice (h = 4 box rows + num_classes score rows, w = anchors)
+// into detected objects with normalized xywh boxes, sorted by confidence and filtered by NMS.
+// only the score rows in classes are read, and boxes centered outside the zones are dropped
+// before sorting
+static void detect(const float *data, int w, int h,
+                   float confidence_threshold, float iou_threshold,
+                   int num_items_threshold, const std::vector<int> &classes,
+                   const std::vector<std::vector<float>> &zones,
+                   std::vector<DetectedObject> &objects) {
+    std::vector<DetectedObject> proposals;
 
     // find boxes with score > threshold and class > threshold
     for (int i = 0; i < w; ++i) {
         // find class index with max class score
         int class_index = 0;
         float class_score = -FLT_MAX;
-
-        // get scores for all class indexes of current box
-        std::vector<float> classes(num_classes);
-        for (int c = 0; c < num_classes; c++) {
-            classes[c] = vec[c + 4][i];
-        }
-
-        // find class index with max class score
-        for (int c = 0; c < num_classes; ++c) {
-            if (classes[c] > class_score) {
+        for (int c : classes) {
+            float score = data[(c + 4) * w + i];
+            if (score > class_score) {
                 class_index = c;
-                class_score = classes[c];
+                class_score = score;
             }
         }
 
         // if class score is less than threshold, move to next box
         if (class_score > confidence_threshold) {
-            float dx = vec[0][i];
-            float dy = vec[1][i];
-            float dw = vec[2][i];
-            float dh = vec[3][i];
+            float dx = data[i];
+            float dy = data[w + i];
+            float dw = data[2 * w + i];
+            float dh = data[3 * w + i];
+
+            if (!in_zones(zones, dx, dy))
+                continue;
 
             DetectedObject obj;
             obj.rect.x = dx;
@@ -140,6 +179,7 @@ Java_com_ultralytics_ultralytics_1yolo_predict_detect_TfliteDetector_postprocess
             obj.rect.height = dh;
             obj.index = class_index;
             obj.confidence = class_score;
+            obj.anchor = i;
 
             proposals.push_back(obj);
         }
@@ -168,8 +208,10 @@ Java_com_ultralytics_ultralytics_1yolo_predict_detect_TfliteDetector_postprocess
         objects[i].rect.width = (x1 - x0);
         objects[i].rect.height = (y1 - y0);
     }
+}
 
-    //return 2-dimension array [detected_box][6(x, y, width, height, conf, class)]
+//return 2-dimension array [detected_box][6(x, y, width, height, conf, class)]
+static jobjectArray to_java_array(JNIEnv *env, const std::vector<DetectedObject> &objects) {
     jobjectArray objArray;
     jclass floatArray = env->FindClass("[F");
     if (floatArray == NULL)
@@ -195,4 +237,183 @@ Java_com_ultralytics_ultralytics_1yolo_predict_detect_TfliteDetector_postprocess
         env->DeleteLocalRef(iarr);
     }
     return objArray;
-}
\ No newline at end of file
+}
+
+extern "C"
+JNIEXPORT jobjectArray JNICALL
+Java_com_ultralytics_ultralytics_1yolo_predict_detect_TfliteDetector_postprocessBatch(JNIEnv *env,
+                                                                                      jobject thiz,
+                                                                                      jfloatArray recognitions,
+                                                                                      jint batch,
+                                                                                      jint w, jint h,
+                                                                                      jfloat confidence_threshold,
+                                                                                      jfloat iou_threshold,
+                                                                                      jint num_items_threshold,
+                                                                                      jint num_classes,
+                                                                                      jintArray class_filter,
+                                                                                      jobjectArray zones) {
+    //return 3-dimension array [batch][detected_box][6(x, y, width, height, conf, class)]
+    jclass objArrayClass = env->FindClass("[[F");
+    if (objArrayClass == NULL)
+        return NULL;
+    jobjectArray batchArray = env->NewObjectArray(batch, objArrayClass, NULL);
+    if (batchArray == NULL)
+        return NULL;
+
+    const std::vector<int> classes = read_class_filter(env, class_filter, num_classes);
+    const std::vector<std::vector<float>> polygons = read_zones(env, zones);
+
+    // the output tensor is [batch][h][w], every slice is postprocessed independently
+    jfloat *data = env->GetFloatArrayElements(recognitions, NULL);
+    for (int b = 0; b < batch; b++) {
+        std::vector<DetectedObject> objects;
+        detect(data + (size_t) b * w * h, w, h, confidence_threshold, iou_threshold,
+               num_items_threshold, classes, polygons, objects);
+
+        jobjectArray objArray = to_java_array(env, objects);
+        if (objArray == NULL) {
+            env->ReleaseFloatArrayElements(recognitions, data, JNI_ABORT);
+            return NULL;
+        }
+        env->SetObjectArrayElement(batchArray, b, objArray);
+        env->DeleteLocalRef(objArray);
+    }
+    env->ReleaseFloatArrayElements(recognitions, data, JNI_ABORT);
+
+    return batchArray;
+}
+
+extern "C"
+JNIEXPORT jobjectArray JNICALL
+Java_com_ultralytics_ultralytics_1yolo_predict_segment_TfliteSegmenter_postprocessSegment(JNIEnv *env,
+                                                                                         jobject thiz,
+                                                                                         jfloatArray recognitions,
+                                                                                         jint w, jint h,
+                                                                                         jfloat confidence_threshold,
+                                                                                         jfloat iou_threshold,
+                                                                                         jint num_items_threshold,
+                                                                                         jint num_classes,
+                                                                                         jint num_masks,
+                                                                                         jintArray class_filter,
+                                                                                         jobjectArray zones) {
+    std::vector<DetectedObject> objects;
+    const std::vector<int> classes = read_class_filter(env, class_filter, num_classes);
+    const std::vector<std::vector<float>> polygons = read_zones(env, zones);
+
+    // boxes and scores go through the same decode as detection, mask coefficients are
+    // only gathered for the objects that survive nms
+    jfloat *data = env->GetFloatArrayElements(recognitions, NULL);
+    detect(data, w, h, confidence_threshold, iou_threshold, num_items_threshold, classes,
+           polygons, objects);
+
+    //return 2-dimension array [detected_box][6 + num_masks(x, y, width, height, conf, class, coefficients...)]
+    jclass floatArray = env->FindClass("[F");
+    jobjectArray objArray = floatArray == NULL ? NULL :
+                            env->NewObjectArray(objects.size(), floatArray, NULL);
+    if (objArray == NULL) {
+        env->ReleaseFloatArrayElements(recognitions, data, JNI_ABORT);
+        return NULL;
+    }
+
+    std::vector<float> boxres(6 + num_masks);
+    for (int i = 0; i < objects.size(); i++) {
+        boxres[0] = objects[i].rect.x;
+        boxres[1] = objects[i].rect.y;
+        boxres[2] = objects[i].rect.width;
+        boxres[3] = objects[i].rect.height;
+        boxres[4] = objects[i].confidence;
+        boxres[5] = (float) objects[i].index;
+        for (int m = 0; m < num_masks; m++) {
+            boxres[6 + m] = data[(4 + num_classes + m) * w + objects[i].anchor];
+        }
+
+        jfloatArray iarr = env->NewFloatArray((jsize) boxres.size());
+        if (iarr == NULL)
+            break;
+        env->SetFloatArrayRegion(iarr, 0, boxres.size(), boxres.data());
+        env->SetObjectArrayElement(objArray, i, iarr);
+        env->DeleteLocalRef(iarr);
+    }
+    env->ReleaseFloatArrayElements(recognitions, data, JNI_ABORT);
+
+    return objArray;
+}
+
+extern "C"
+JNIEXPORT jobjectArray JNICALL
+Java_com_ultralytics_ultralytics_1yolo_predict_segment_TfliteSegmenter_processMasks(JNIEnv *env,
+                                                                                   jobject thiz,
+                                                                                   jfloatArray prototypes,
+                                                                                   jint proto_h,
+                                                                                   jint proto_w,
+                                                                                   jint num_masks,
+                                                                                   jobjectArray detections,
+                                                                                   jint mask_size) {
+    const int count = env->GetArrayLength(detections);
+    const int packed_size = (mask_size * mask_size + 7) / 8;
+
+    //return 2-dimension array [detected_box][mask_size * mask_size bits, row-major, msb first]
+    jclass byteArray = env->FindClass("[B");
+    if (byteArray == NULL)
+        return NULL;
+    jobjectArray maskArray = env->NewObjectArray(count, byteArray, NULL);
+    if (maskArray == NULL)
+        return NULL;
+
+    // prototypes are laid out [proto_h][proto_w][num_masks]
+    jfloat *protos = env->GetFloatArrayElements(prototypes, NULL);
+    std::vector<float> detection(6 + num_masks);
+    std::vector<jbyte> packed(packed_size);
+    cv::Mat resized;
+
+    for (int i = 0; i < count; i++) {
+        jfloatArray row = (jfloatArray) env->GetObjectArrayElement(detections, i);
+        env->GetFloatArrayRegion(row, 0, 6 + num_masks, detection.data());
+        env->DeleteLocalRef(row);
+        const float *coefficients = detection.data() + 6;
+
+        // crop the box out of the prototype grid, only these cells are ever evaluated
+        int x0 = std::max(0, (int) std::floor(detection[0] * proto_w));
+        int y0 = std::max(0, (int) std::floor(detection[1] * proto_h));
+        int x1 = std::min((int) proto_w, (int) std::ceil((detection[0] + detection[2]) * proto_w));
+        int y1 = std::min((int) proto_h, (int) std::ceil((detection[1] + detection[3]) * proto_h));
+        x1 = std::max(x1, x0 + 1);
+        y1 = std::max(y1, y0 + 1);
+
+        cv::Mat logits(y1 - y0, x1 - x0, CV_32F);
+        for (int y = y0; y < y1; y++) {
+            float *out = logits.ptr<float>(y - y0);
+            for (int x = x0; x < x1; x++) {
+                const float *proto = protos + ((size_t) y * proto_w + x) * num_masks;
+                float sum = 0.f;
+                for (int m = 0; m < num_masks; m++) {
+                    sum += coefficients[m] * proto[m];
+                }
+                out[x - x0] = sum;
+            }
+        }
+
+        // resample to the requested resolution, sigmoid(logit) > 0.5 is the same as logit > 0
+        cv::resize(logits, resized, cv::Size(mask_size, mask_size), 0, 0, cv::INTER_LINEAR);
+        std::fill(packed.begin(), packed.end(), 0);
+        for (int y = 0; y < mask_size; y++) {
+            const float *in = resized.ptr<float>(y);
+            for (int x = 0; x < mask_size; x++) {
+                if (in[x] > 0.f) {
+                    int bit = y * mask_size + x;
+                    packed[bit >> 3] |= (jbyte) (0x80 >> (bit & 7));
+                }
+            }
+        }
+
+        jbyteArray barr = env->NewByteArray((jsize) packed_size);
+        if (barr == NULL)
+            break;
+        env->SetByteArrayRegion(barr, 0, packed_size, packed.data());
+        env->SetObjectArrayElement(maskArray, i, barr);
+        env->DeleteLocalRef(barr);
+    }
+    env->ReleaseFloatArrayElements(prototypes, protos, JNI_ABORT);
+
+    return maskArray;
+}
@@ -11,6 +11,8 @@ struct DetectedObject {
     cv::Rect_<float> rect;
     int index;
     float confidence;
+    // column of the output tensor the object was decoded from
+    int anchor;
 };
 
 #endif //ANDROID_ULTRALYTICS_H
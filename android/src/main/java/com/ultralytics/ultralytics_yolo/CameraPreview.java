@@ -11,6 +11,7 @@ import androidx.camera.core.Camera;
 import androidx.camera.core.CameraControl;
 import androidx.camera.core.CameraSelector;
 import androidx.camera.core.ImageAnalysis;
+import androidx.camera.core.ImageProxy;
 import androidx.camera.core.Preview;
 import androidx.camera.lifecycle.ProcessCameraProvider;
 import androidx.camera.view.PreviewView;
@@ -25,13 +26,29 @@ import java.util.concurrent.ExecutionException;
 
 public class CameraPreview {
     public final static Size CAMERA_PREVIEW_SIZE = new Size(640, 480);
+    // Smallest analysis frame side; below this CameraX may fall back to odd aspect ratios
+    private static final int MIN_ANALYSIS_SIDE = 240;
     private final Context context;
-    private Predictor predictor;
+    private volatile Predictor predictor;
     private ProcessCameraProvider cameraProvider;
     private CameraControl cameraControl;
     private Activity activity;
     private PreviewView mPreviewView;
     private boolean busy = false;
+    private volatile MotionGate motionGate;
+    private volatile Runnable gatedFrameCallback;
+    private volatile Size analysisSize = CAMERA_PREVIEW_SIZE;
+    private int modelInputSize = 0;
+    private boolean rgbaOutput = false;
+    private int facing;
+    private ImageAnalysis imageAnalysis;
+    private boolean paused = false;
+    private boolean closed = false;
+    private boolean analyzerAttached = false;
+    // Without listeners, frames are inferred at this interval, or not at all when 0
+    private volatile boolean idle = false;
+    private volatile long idleIntervalNanos = 0;
+    private long lastIdleFrameNanos = 0;
 
     public CameraPreview(Context context) {
         this.context = context;
@@ -56,6 +73,7 @@ public class CameraPreview {
     private void bindPreview(int facing) {
         if (!busy) {
             busy = true;
+            this.facing = facing;
 
             Preview cameraPreview = new Preview.Builder()
                     .setTargetAspectRatio(AspectRatio.RATIO_4_3)
@@ -65,17 +83,24 @@ public class CameraPreview {
                     .requireLensFacing(facing)
                     .build();
 
-            ImageAnalysis imageAnalysis =
+            ImageAnalysis.Builder imageAnalysisBuilder =
                     new ImageAnalysis.Builder()
-                            .setBackpressureStrategy(ImageAnalysis.STRATEGY_KEEP_ONLY_LATEST)
-                            .setTargetAspectRatio(AspectRatio.RATIO_4_3)
-                            .build();
-            imageAnalysis.setAnalyzer(Runnable::run, imageProxy -> {
-                predictor.predict(imageProxy, facing == CameraSelector.LENS_FACING_FRONT);
-
-                //clear stream for next image
-                imageProxy.close();
-            });
+                            .setBackpressureStrategy(ImageAnalysis.STRATEGY_KEEP_ONLY_LATEST);
+            if (modelInputSize > 0) {
+                // The predictors crop the frame to a square of its short side and scale that to the
+                // input size, so anything beyond the input size on the short side is discarded.
+                // Sizes are in the rotated frame, i.e. portrait.
+                final int shortSide = Math.max(modelInputSize, MIN_ANALYSIS_SIDE);
+                imageAnalysisBuilder.setTargetResolution(new Size(shortSide, shortSide * 4 / 3));
+            } else {
+                imageAnalysisBuilder.setTargetAspectRatio(AspectRatio.RATIO_4_3);
+            }
+            if (rgbaOutput) {
+                imageAnalysisBuilder.setOutputImageFormat(ImageAnalysis.OUTPUT_IMAGE_FORMAT_RGBA_8888);
+            }
+            imageAnalysis = imageAnalysisBuilder.build();
+            analyzerAttached = false;
+            updateAnalyzer();
 
             // Unbind use cases before rebinding
             cameraProvider.unbindAll();
@@ -87,22 +112,188 @@ public class CameraPreview {
 
             cameraPreview.setSurfaceProvider(mPreviewView.getSurfaceProvider());
 
+            closed = false;
             busy = false;
         }
     }
 
+    private void analyze(ImageProxy imageProxy) {
+        PipelineTracer.begin(PipelineTracer.ANALYZE);
+
+        // Idle heartbeat: only the occasional frame goes through while nobody listens
+        if (idle) {
+            final long now = System.nanoTime();
+            if (now - lastIdleFrameNanos < idleIntervalNanos) {
+                imageProxy.close();
+                PipelineTracer.end(PipelineTracer.ANALYZE);
+                return;
+            }
+            lastIdleFrameNanos = now;
+        }
+
+        final Size size = analysisSize;
+        if (size.getWidth() != imageProxy.getWidth() || size.getHeight() != imageProxy.getHeight()) {
+            analysisSize = new Size(imageProxy.getWidth(), imageProxy.getHeight());
+        }
+
+        // Static scenes keep the previous results instead of running the model again
+        // Read once, a model swap takes effect from the next frame
+        final Predictor framePredictor = predictor;
+        final MotionGate gate = motionGate;
+        if (framePredictor != null) {
+            if (gate == null || gate.accept(imageProxy)) {
+                // Every processed frame is the new reference, including tracker-only frames
+                if (gate != null) {
+                    gate.commit();
+                }
+                framePredictor.predict(imageProxy, facing == CameraSelector.LENS_FACING_FRONT);
+            } else {
+                final Runnable callback = gatedFrameCallback;
+                if (callback != null) {
+                    callback.run();
+                }
+            }
+        }
+
+        //clear stream for next image
+        imageProxy.close();
+        PipelineTracer.end(PipelineTracer.ANALYZE);
+    }
+
+    /**
+     * Stops delivering frames to the predictor while the preview keeps running. Without an
+     * analyzer CameraX stops producing analysis frames, so nothing is converted or inferred.
+     */
+    public void pauseLivePrediction() {
+        paused = true;
+        updateAnalyzer();
+    }
+
+    public void resumeLivePrediction() {
+        paused = false;
+        updateAnalyzer();
+    }
+
+    /**
+     * Throttles inference while no Dart listener would receive its results. With an interval of
+     * 0 the analyzer is detached as if paused, otherwise one frame per interval is still inferred
+     * to keep the pipeline warm.
+     */
+    public void setIdle(boolean idle, long intervalMs) {
+        idleIntervalNanos = intervalMs * 1_000_000;
+        this.idle = idle;
+        updateAnalyzer();
+    }
+
+    private void updateAnalyzer() {
+        if (imageAnalysis == null) {
+            return;
+        }
+        final boolean attach = !paused && !(idle && idleIntervalNanos == 0);
+        if (attach && !analyzerAttached) {
+            // The scene may have changed completely while detached
+            resetMotionGate();
+            imageAnalysis.setAnalyzer(Runnable::run, this::analyze);
+        } else if (!attach && analyzerAttached) {
+            imageAnalysis.clearAnalyzer();
+        }
+        analyzerAttached = attach;
+    }
+
+    /**
+     * Releases the camera. {@link #startCamera()} binds it again with the same settings.
+     */
+    public void closeCamera() {
+        closed = true;
+        if (cameraProvider != null) {
+            cameraProvider.unbindAll();
+        }
+        imageAnalysis = null;
+        analyzerAttached = false;
+        cameraControl = null;
+    }
+
+    public void startCamera() {
+        if (cameraProvider != null && closed) {
+            resetMotionGate();
+            bindPreview(facing);
+        }
+    }
+
     public void setPredictorFrameProcessor(Predictor predictor) {
         this.predictor = predictor;
+        resetMotionGate();
+    }
+
+    /**
+     * Chooses the analysis resolution from the model input size, and whether the camera pipeline
+     * delivers RGBA frames instead of YUV. Rebinds the camera if it is open.
+     */
+    public void setAnalysisConfig(int modelInputSize, boolean rgbaOutput) {
+        if (modelInputSize == this.modelInputSize && rgbaOutput == this.rgbaOutput) {
+            return;
+        }
+        this.modelInputSize = modelInputSize;
+        this.rgbaOutput = rgbaOutput;
+        if (cameraProvider != null && !closed) {
+            bindPreview(facing);
+        }
+    }
+
+    public boolean isRgbaOutput() {
+        return rgbaOutput;
+    }
+
+    /**
+     * @return The unrotated size of the latest analysis frame, which is
+     * {@link #CAMERA_PREVIEW_SIZE} until the first frame arrives.
+     */
+    public Size getAnalysisSize() {
+        return analysisSize;
+    }
+
+    /**
+     * Skips frames whose luma differs from the last inferred frame by less than
+     * {@code threshold} on average (0-255).
+     */
+    public void setMotionGate(boolean enabled, float threshold) {
+        if (enabled) {
+            MotionGate gate = new MotionGate();
+            gate.setThreshold(threshold);
+            motionGate = gate;
+        } else {
+            motionGate = null;
+        }
+    }
+
+    /**
+     * Called on the analysis thread for every frame the motion gate skips.
+     */
+    public void setGatedFrameCallback(Runnable callback) {
+        gatedFrameCallback = callback;
+    }
+
+    private void resetMotionGate() {
+        final MotionGate gate = motionGate;
+        if (gate != null) {
+            gate.reset();
+        }
     }
 
     public void setCameraFacing(int facing) {
-        if (cameraProvider != null) {
+        resetMotionGate();
+        if (closed) {
+            this.facing = facing;
+        } else if (cameraProvider != null) {
             cameraProvider.unbindAll();
             bindPreview(facing);
         }
     }
 
     public void setScaleFactor(double factor) {
+        if (cameraControl == null) {
+            return;
+        }
         cameraControl.setZoomRatio((float)factor);
     }
 }
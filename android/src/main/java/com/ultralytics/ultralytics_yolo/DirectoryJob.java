@@ -0,0 +1,256 @@
+// Ultralytics 🚀 AGPL-3.0 License - https://ultralytics.com/license
+
+package com.ultralytics.ultralytics_yolo;
+
+import android.graphics.Bitmap;
+import android.os.Handler;
+import android.os.Looper;
+
+import com.ultralytics.ultralytics_yolo.predict.BitmapPool;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs a predictor over every image below a directory and streams one event per file.
+ * <p>
+ * The directory is walked lazily, depth first and in name order, so a job resumed from a
+ * checkpoint sees files in the same order. Files are decoded ahead on a small pool into a bounded
+ * queue, which caps how many decoded images are held at once. Inference runs on the main thread
+ * like every other predictor call, one file at a time, so it never races live prediction for the
+ * interpreter.
+ */
+class DirectoryJob implements Runnable {
+    private static final int DECODE_THREADS = 2;
+    private static final int PREFETCH_SIZE = 4;
+    private static final String[] IMAGE_EXTENSIONS = {".jpg", ".jpeg", ".png", ".webp", ".bmp", ".heic", ".heif"};
+    private static final Future<DecodedImage> END = CompletableFuture.completedFuture(null);
+
+    interface Inference {
+        /**
+         * Called on the main thread.
+         *
+         * @param width  Width of the original image.
+         * @param height Height of the original image.
+         * @return The channel representation of the results.
+         */
+        Object run(Bitmap bitmap, int width, int height);
+    }
+
+    interface Listener {
+        /**
+         * Called on the main thread, ending with a "done" event.
+         */
+        void onEvent(DirectoryJob job, Map<String, Object> event);
+    }
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final File root;
+    private final String resumeAfter;
+    private final BitmapPool bitmapPool;
+    private final int minSide;
+    private final Inference inference;
+    private final Listener listener;
+    private final BlockingQueue<Future<DecodedImage>> queue = new ArrayBlockingQueue<>(PREFETCH_SIZE);
+    private final ExecutorService decoder = Executors.newFixedThreadPool(DECODE_THREADS);
+    private volatile boolean cancelled = false;
+    private int processed = 0;
+    private int failed = 0;
+    private String checkpoint;
+
+    /**
+     * @param resumeAfter Relative path of the last file a previous run completed, or null to
+     *                    start from the beginning.
+     * @param minSide     Smallest side images are decoded at, see {@link BitmapPool#decodeFile(String, int, int[])}.
+     */
+    DirectoryJob(File root, String resumeAfter, BitmapPool bitmapPool, int minSide,
+                 Inference inference, Listener listener) {
+        this.root = root;
+        this.resumeAfter = resumeAfter;
+        this.bitmapPool = bitmapPool;
+        this.minSide = minSide;
+        this.inference = inference;
+        this.listener = listener;
+        this.checkpoint = resumeAfter;
+    }
+
+    /**
+     * Stops the job after the file in progress. The "done" event reports the checkpoint to resume
+     * from.
+     */
+    void cancel() {
+        cancelled = true;
+    }
+
+    @Override
+    public void run() {
+        Thread walker = new Thread(() -> {
+            try {
+                walk(root, "");
+                queue.put(END);
+            } catch (InterruptedException e) {
+                // Cancelled while waiting for queue space
+            }
+        }, "ultralytics-directory-walk");
+        walker.start();
+
+        try {
+            while (!cancelled) {
+                Future<DecodedImage> next = queue.take();
+                if (next == END) {
+                    break;
+                }
+                process(next.get());
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            cancelled = true;
+        } finally {
+            walker.interrupt();
+            decoder.shutdownNow();
+            releaseQueued();
+        }
+
+        Map<String, Object> event = progressEvent("done");
+        event.put("cancelled", cancelled);
+        handler.post(() -> listener.onEvent(this, event));
+    }
+
+    private void walk(File directory, String prefix) throws InterruptedException {
+        String[] names = directory.list();
+        if (names == null) {
+            return;
+        }
+        Arrays.sort(names);
+
+        for (String name : names) {
+            if (cancelled) {
+                return;
+            }
+            final File file = new File(directory, name);
+            final String path = prefix + name;
+            if (file.isDirectory()) {
+                // Directories before the checkpoint hold only completed files
+                if (resumeAfter == null || resumeAfter.startsWith(path + "/") ||
+                        compareWalkOrder(path, resumeAfter) > 0) {
+                    walk(file, path + "/");
+                }
+            } else if (isImage(name) && (resumeAfter == null || compareWalkOrder(path, resumeAfter) > 0)) {
+                queue.put(decoder.submit(() -> decode(file, path)));
+            }
+        }
+    }
+
+    private DecodedImage decode(File file, String path) {
+        DecodedImage image = new DecodedImage(path);
+        try {
+            image.bitmap = bitmapPool.decodeFile(file.getPath(), minSide, image.size);
+        } catch (RuntimeException e) {
+            // Reported as an invalid image
+        }
+        return image;
+    }
+
+    private void process(DecodedImage image) throws InterruptedException {
+        final CountDownLatch latch = new CountDownLatch(1);
+        handler.post(() -> {
+            try {
+                if (cancelled) {
+                    // Left for a resumed run, e.g. after the model was replaced
+                    bitmapPool.release(image.bitmap);
+                    return;
+                }
+                Map<String, Object> event;
+                if (image.bitmap == null) {
+                    failed++;
+                    event = progressEvent("error", image.path);
+                    event.put("message", "Invalid image");
+                } else {
+                    Object results = inference.run(image.bitmap, image.size[0], image.size[1]);
+                    bitmapPool.release(image.bitmap);
+                    processed++;
+                    event = progressEvent("result", image.path);
+                    event.put("results", results);
+                }
+                listener.onEvent(this, event);
+            } finally {
+                latch.countDown();
+            }
+        });
+        latch.await();
+    }
+
+    private Map<String, Object> progressEvent(String type, String path) {
+        checkpoint = path;
+        Map<String, Object> event = progressEvent(type);
+        event.put("path", path);
+        return event;
+    }
+
+    private Map<String, Object> progressEvent(String type) {
+        Map<String, Object> event = new HashMap<>();
+        event.put("type", type);
+        event.put("processed", processed);
+        event.put("failed", failed);
+        event.put("checkpoint", checkpoint);
+        return event;
+    }
+
+    private void releaseQueued() {
+        for (Future<DecodedImage> future : queue) {
+            if (future != END && future.isDone() && !future.isCancelled()) {
+                try {
+                    bitmapPool.release(future.get().bitmap);
+                } catch (InterruptedException | ExecutionException e) {
+                    // Nothing to release
+                }
+            }
+        }
+        queue.clear();
+    }
+
+    private static boolean isImage(String name) {
+        final String lowerName = name.toLowerCase(Locale.ROOT);
+        for (String extension : IMAGE_EXTENSIONS) {
+            if (lowerName.endsWith(extension)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Compares relative paths in walk order, which is name order segment by segment.
+     */
+    private static int compareWalkOrder(String a, String b) {
+        final String[] aSegments = a.split("/");
+        final String[] bSegments = b.split("/");
+        for (int i = 0; i < Math.min(aSegments.length, bSegments.length); i++) {
+            int comparison = aSegments[i].compareTo(bSegments[i]);
+            if (comparison != 0) {
+                return comparison;
+            }
+        }
+        return Integer.compare(aSegments.length, bSegments.length);
+    }
+
+    private static class DecodedImage {
+        final String path;
+        final int[] size = new int[2];
+        Bitmap bitmap;
+
+        DecodedImage(String path) {
+            this.path = path;
+        }
+    }
+}
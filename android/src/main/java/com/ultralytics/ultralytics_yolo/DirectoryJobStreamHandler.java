@@ -0,0 +1,30 @@
+// Ultralytics 🚀 AGPL-3.0 License - https://ultralytics.com/license
+
+package com.ultralytics.ultralytics_yolo;
+
+import java.util.Map;
+
+import io.flutter.plugin.common.EventChannel;
+
+/**
+ * Streams directory job events to Dart. Events are produced on the main thread.
+ */
+class DirectoryJobStreamHandler implements EventChannel.StreamHandler {
+    private EventChannel.EventSink eventSink;
+
+    @Override
+    public void onListen(Object arguments, EventChannel.EventSink events) {
+        eventSink = events;
+    }
+
+    @Override
+    public void onCancel(Object arguments) {
+        eventSink = null;
+    }
+
+    public void sink(Map<String, Object> event) {
+        if (eventSink != null) {
+            eventSink.success(event);
+        }
+    }
+}
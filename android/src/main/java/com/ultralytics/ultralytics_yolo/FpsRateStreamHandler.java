@@ -10,22 +10,40 @@ import io.flutter.plugin.common.EventChannel;
 class FpsRateStreamHandler implements EventChannel.StreamHandler {
     final private Handler handler = new Handler(Looper.getMainLooper());
     private EventChannel.EventSink eventSink;
+    private Runnable listenerCallback;
 
     @Override
     public void onListen(Object arguments, EventChannel.EventSink events) {
         eventSink = events;
+        if (listenerCallback != null) {
+            listenerCallback.run();
+        }
     }
 
     @Override
     public void onCancel(Object arguments) {
         eventSink = null;
+        if (listenerCallback != null) {
+            listenerCallback.run();
+        }
+    }
+
+    public boolean hasListener() {
+        return eventSink != null;
+    }
+
+    /**
+     * Called on the main thread whenever a listener subscribes or cancels.
+     */
+    public void setListenerCallback(Runnable callback) {
+        listenerCallback = callback;
     }
 
     public void sink(double fps) {
         if (eventSink != null) {
-            handler.post(() -> handler.post(() -> {
+            handler.post(() -> {
                 if (eventSink != null) eventSink.success(fps);
-            }));
+            });
         }
     }
 
@@ -6,6 +6,7 @@ import android.graphics.Bitmap;
 import android.graphics.BitmapFactory;
 import android.graphics.ImageFormat;
 import android.graphics.Matrix;
+import android.graphics.PixelFormat;
 import android.graphics.Rect;
 import android.graphics.YuvImage;
 import androidx.camera.core.ImageProxy;
@@ -14,9 +15,45 @@ import java.nio.ByteBuffer;
 
 public class ImageUtils {
     public static Bitmap toBitmap(ImageProxy imageProxy) {
-        byte[] nv21 = yuv420888ToNv21(imageProxy);
-        YuvImage yuvImage = new YuvImage(nv21, ImageFormat.NV21, imageProxy.getWidth(), imageProxy.getHeight(), null);
-        return yuvImageToBitmap(yuvImage);
+        PipelineTracer.begin(PipelineTracer.TO_BITMAP);
+        Bitmap bitmap;
+        if (imageProxy.getFormat() == PixelFormat.RGBA_8888) {
+            bitmap = rgbaToBitmap(imageProxy);
+        } else {
+            byte[] nv21 = yuv420888ToNv21(imageProxy);
+            YuvImage yuvImage = new YuvImage(nv21, ImageFormat.NV21, imageProxy.getWidth(), imageProxy.getHeight(), null);
+            bitmap = yuvImageToBitmap(yuvImage);
+        }
+        PipelineTracer.end(PipelineTracer.TO_BITMAP);
+        return bitmap;
+    }
+
+    /**
+     * Copies an RGBA_8888 frame, already converted by the camera pipeline, into a bitmap.
+     */
+    private static Bitmap rgbaToBitmap(ImageProxy imageProxy) {
+        ImageProxy.PlaneProxy plane = imageProxy.getPlanes()[0];
+        ByteBuffer buffer = plane.getBuffer();
+        final int width = imageProxy.getWidth();
+        final int height = imageProxy.getHeight();
+        final int rowStride = plane.getRowStride();
+        final int rowBytes = width * 4;
+
+        // Bitmap memory is RGBA as well, so unpadded rows copy straight across
+        if (rowStride != rowBytes) {
+            ByteBuffer packed = ByteBuffer.allocate(rowBytes * height);
+            for (int row = 0; row < height; row++) {
+                buffer.limit(row * rowStride + rowBytes).position(row * rowStride);
+                packed.put(buffer);
+            }
+            buffer.clear();
+            buffer = packed;
+        }
+        buffer.rewind();
+
+        Bitmap bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        bitmap.copyPixelsFromBuffer(buffer);
+        return bitmap;
     }
 
     /**
@@ -90,67 +127,26 @@ public class ImageUtils {
         int pixelCount = imageProxy.getCropRect().width() * imageProxy.getCropRect().height();
         int pixelSizeBits = ImageFormat.getBitsPerPixel(ImageFormat.YUV_420_888);
         byte[] outputBuffer = new byte[pixelCount * pixelSizeBits / 8];
-        imageToByteBuffer(imageProxy, outputBuffer, pixelCount);
+        imageToByteBuffer(imageProxy, outputBuffer);
         return outputBuffer;
     }
 
-    private static void imageToByteBuffer(ImageProxy imageProxy, byte[] outputBuffer, int pixelCount) {
+    private static void imageToByteBuffer(ImageProxy imageProxy, byte[] outputBuffer) {
         assert imageProxy.getFormat() == ImageFormat.YUV_420_888;
 
         Rect imageCrop = imageProxy.getCropRect();
         ImageProxy.PlaneProxy[] imagePlanes = imageProxy.getPlanes();
 
+        ByteBuffer[] planes = new ByteBuffer[imagePlanes.length];
+        int[] rowStrides = new int[imagePlanes.length];
+        int[] pixelStrides = new int[imagePlanes.length];
         for (int planeIndex = 0; planeIndex < imagePlanes.length; planeIndex++) {
-            int outputStride;
-            int outputOffset;
-
-            switch (planeIndex) {
-                case 0:
-                    outputStride = 1;
-                    outputOffset = 0;
-                    break;
-                case 1:
-                    outputStride = 2;
-                    outputOffset = pixelCount + 1;
-                    break;
-                case 2:
-                    outputStride = 2;
-                    outputOffset = pixelCount;
-                    break;
-                default:
-                    return;
-            }
-
-            ImageProxy.PlaneProxy plane = imagePlanes[planeIndex];
-            ByteBuffer planeBuffer = plane.getBuffer();
-            int rowStride = plane.getRowStride();
-            int pixelStride = plane.getPixelStride();
-
-            Rect planeCrop = (planeIndex == 0) ?
-                    imageCrop :
-                    new Rect(imageCrop.left / 2, imageCrop.top / 2, imageCrop.right / 2, imageCrop.bottom / 2);
-
-            int planeWidth = planeCrop.width();
-            int planeHeight = planeCrop.height();
-
-            byte[] rowBuffer = new byte[plane.getRowStride()];
-
-            int rowLength = (pixelStride == 1 && outputStride == 1) ? planeWidth : (planeWidth - 1) * pixelStride + 1;
-
-            for (int row = 0; row < planeHeight; row++) {
-                planeBuffer.position((row + planeCrop.top) * rowStride + planeCrop.left * pixelStride);
-
-                if (pixelStride == 1 && outputStride == 1) {
-                    planeBuffer.get(outputBuffer, outputOffset, rowLength);
-                    outputOffset += rowLength;
-                } else {
-                    planeBuffer.get(rowBuffer, 0, rowLength);
-                    for (int col = 0; col < planeWidth; col++) {
-                        outputBuffer[outputOffset] = rowBuffer[col * pixelStride];
-                        outputOffset += outputStride;
-                    }
-                }
-            }
+            planes[planeIndex] = imagePlanes[planeIndex].getBuffer();
+            rowStrides[planeIndex] = imagePlanes[planeIndex].getRowStride();
+            pixelStrides[planeIndex] = imagePlanes[planeIndex].getPixelStride();
         }
+
+        YuvUtils.toNv21(planes, rowStrides, pixelStrides,
+                imageCrop.left, imageCrop.top, imageCrop.width(), imageCrop.height(), outputBuffer);
     }
 }
@@ -5,27 +5,59 @@ package com.ultralytics.ultralytics_yolo;
 import android.os.Handler;
 import android.os.Looper;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import io.flutter.plugin.common.EventChannel;
 
 class InferenceTimeStreamHandler implements EventChannel.StreamHandler {
     final private Handler handler = new Handler(Looper.getMainLooper());
     private EventChannel.EventSink eventSink;
+    private Runnable listenerCallback;
 
     @Override
     public void onListen(Object arguments, EventChannel.EventSink events) {
         eventSink = events;
+        if (listenerCallback != null) {
+            listenerCallback.run();
+        }
     }
 
     @Override
     public void onCancel(Object arguments) {
         eventSink = null;
+        if (listenerCallback != null) {
+            listenerCallback.run();
+        }
+    }
+
+    public boolean hasListener() {
+        return eventSink != null;
+    }
+
+    /**
+     * Called on the main thread whenever a listener subscribes or cancels.
+     */
+    public void setListenerCallback(Runnable callback) {
+        listenerCallback = callback;
     }
 
     public void sink(double inferenceTime) {
         if (eventSink != null) {
-            handler.post(() -> handler.post(() -> {
+            handler.post(() -> {
                 if (eventSink != null) eventSink.success(inferenceTime);
-            }));
+            });
+        }
+    }
+
+    public void sink(double inferenceTime, int inputSize) {
+        if (eventSink != null) {
+            Map<String, Object> event = new HashMap<>();
+            event.put("inferenceTime", inferenceTime);
+            event.put("inputSize", inputSize);
+            handler.post(() -> {
+                if (eventSink != null) eventSink.success(event);
+            });
         }
     }
 
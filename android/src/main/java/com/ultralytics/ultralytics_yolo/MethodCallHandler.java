@@ -2,30 +2,39 @@
 
 package com.ultralytics.ultralytics_yolo;
 
-import static com.ultralytics.ultralytics_yolo.CameraPreview.CAMERA_PREVIEW_SIZE;
-
 import android.content.Context;
 import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
+import android.os.Handler;
+import android.os.Looper;
 import android.util.DisplayMetrics;
+import android.util.Size;
 
 import androidx.annotation.NonNull;
 
 import com.ultralytics.ultralytics_yolo.models.LocalYoloModel;
 import com.ultralytics.ultralytics_yolo.models.RemoteYoloModel;
 import com.ultralytics.ultralytics_yolo.models.YoloModel;
+import com.ultralytics.ultralytics_yolo.predict.BitmapPool;
 import com.ultralytics.ultralytics_yolo.predict.Predictor;
 import com.ultralytics.ultralytics_yolo.predict.classify.ClassificationResult;
 import com.ultralytics.ultralytics_yolo.predict.classify.Classifier;
 import com.ultralytics.ultralytics_yolo.predict.classify.TfliteClassifier;
 import com.ultralytics.ultralytics_yolo.predict.detect.Detector;
 import com.ultralytics.ultralytics_yolo.predict.detect.TfliteDetector;
+import com.ultralytics.ultralytics_yolo.predict.segment.Segmenter;
+import com.ultralytics.ultralytics_yolo.predict.segment.TfliteSegmenter;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
 
 import io.flutter.plugin.common.BinaryMessenger;
 import io.flutter.plugin.common.EventChannel;
@@ -33,15 +42,43 @@ import io.flutter.plugin.common.MethodCall;
 import io.flutter.plugin.common.MethodChannel;
 
 public class MethodCallHandler implements MethodChannel.MethodCallHandler {
+    // Binary frames: [frame number, detection count, floats per detection] followed by
+    // [x, y, width, height, confidence, index] for every detection, plus the track ID when
+    // tracking is enabled
+    private static final int BINARY_HEADER_SIZE = 3;
+    private static final int BINARY_DETECTION_SIZE = 6;
     private final Context context;
     private final CameraPreview cameraPreview;
     private Predictor predictor;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    // Models load here while the current predictor keeps serving frames
+    private final ExecutorService modelLoader =
+            Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "ultralytics-model-loader"));
     private final ResultStreamHandler resultStreamHandler;
     private final InferenceTimeStreamHandler inferenceTimeStreamHandler;
     private final FpsRateStreamHandler fpsRateStreamHandler;
+    private final TelemetryStreamHandler telemetryStreamHandler;
+    private final DirectoryJobStreamHandler directoryJobStreamHandler;
+    private DirectoryJob directoryJob;
+    private final StageLatencyHistograms stageLatencyHistograms = new StageLatencyHistograms();
+    private final BitmapPool bitmapPool = new BitmapPool();
+    private final ResultCache resultCache = new ResultCache();
+    // New still images are hashed here, reading a large photo would stall the main thread
+    private final ExecutorService resultCacheHasher =
+            Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "ultralytics-result-cache"));
+    // Identify the results of still images in the result cache
+    private String modelId = "";
+    private final Map<String, Object> predictorSettings = new TreeMap<>();
     private final float widthDp;
     private final float density;
     private final float heightDp;
+    private boolean latencyTargetEnabled = false;
+    private boolean binaryResults = false;
+    private boolean deltaResults = false;
+    private final ResultDeltaEncoder resultDeltaEncoder = new ResultDeltaEncoder();
+    private int binaryFrameNumber = 0;
+    private boolean idleInferenceEnabled = true;
+    private long idleIntervalMs = 0;
 
     public MethodCallHandler(BinaryMessenger binaryMessenger, Context context, CameraPreview cameraPreview) {
         this.context = context;
@@ -50,6 +87,9 @@ public class MethodCallHandler implements MethodChannel.MethodCallHandler {
 
         EventChannel predictionResultEventChannel = new EventChannel(binaryMessenger, "ultralytics_yolo_prediction_results");
         resultStreamHandler = new ResultStreamHandler();
+        // A new listener has no baseline to apply deltas to
+        resultStreamHandler.setOnListenCallback(resultDeltaEncoder::reset);
+        resultStreamHandler.setEmitTimeCallback(nanos -> recordStage(Predictor.STAGE_EMIT, nanos));
         predictionResultEventChannel.setStreamHandler(resultStreamHandler);
 
         EventChannel inferenceTimeEventChannel = new EventChannel(binaryMessenger, "ultralytics_yolo_inference_time");
@@ -60,6 +100,17 @@ public class MethodCallHandler implements MethodChannel.MethodCallHandler {
         fpsRateStreamHandler = new FpsRateStreamHandler();
         fpsRateEventChannel.setStreamHandler(fpsRateStreamHandler);
 
+        EventChannel telemetryEventChannel = new EventChannel(binaryMessenger, "ultralytics_yolo_telemetry");
+        telemetryStreamHandler = new TelemetryStreamHandler();
+        telemetryEventChannel.setStreamHandler(telemetryStreamHandler);
+        // Frames skipped by the motion gate and results that never reached Dart count as dropped
+        resultStreamHandler.setDroppedResultCallback(telemetryStreamHandler::recordDroppedFrame);
+        cameraPreview.setGatedFrameCallback(telemetryStreamHandler::recordDroppedFrame);
+
+        EventChannel directoryJobEventChannel = new EventChannel(binaryMessenger, "ultralytics_yolo_directory_results");
+        directoryJobStreamHandler = new DirectoryJobStreamHandler();
+        directoryJobEventChannel.setStreamHandler(directoryJobStreamHandler);
+
 
         DisplayMetrics displayMetrics = context.getResources().getDisplayMetrics();
         int widthPixels = displayMetrics.widthPixels;
@@ -69,6 +120,21 @@ public class MethodCallHandler implements MethodChannel.MethodCallHandler {
         // Add 40dp to resolve the discrepancy between Flutter screen and AndroidView
         // caused by the presence of the navigation bar
         heightDp = heightPixels / density + 40;
+
+        resultStreamHandler.setListenerCallback(this::updateIdleState);
+        inferenceTimeStreamHandler.setListenerCallback(this::updateIdleState);
+        fpsRateStreamHandler.setListenerCallback(this::updateIdleState);
+        telemetryStreamHandler.setListenerCallback(this::updateIdleState);
+        updateIdleState();
+    }
+
+    /**
+     * Idles live inference while no stream has a listener to receive its output.
+     */
+    private void updateIdleState() {
+        final boolean hasListener = resultStreamHandler.hasListener() || inferenceTimeStreamHandler.hasListener() ||
+                fpsRateStreamHandler.hasListener() || telemetryStreamHandler.hasListener();
+        cameraPreview.setIdle(idleInferenceEnabled && !hasListener, idleIntervalMs);
     }
 
     @Override
@@ -87,12 +153,102 @@ public class MethodCallHandler implements MethodChannel.MethodCallHandler {
             case "setNumItemsThreshold":
                 setNumItemsThreshold(call, result);
                 break;
+            case "setClassFilter":
+                setClassFilter(call, result);
+                break;
+            case "setZones":
+                setZones(call, result);
+                break;
+            case "setMaskResolution":
+                setMaskResolution(call, result);
+                break;
+            case "setResultMaxAge":
+                setResultMaxAge(call, result);
+                break;
+            case "getResultStats":
+                result.success(resultStreamHandler.getStats());
+                break;
+            case "resetResultStats":
+                resultStreamHandler.resetStats();
+                result.success("Success");
+                break;
+            case "startTrace":
+                startTrace(call, result);
+                break;
+            case "stopTrace":
+                stopTrace(call, result);
+                break;
+            case "getStageLatencies":
+                result.success(stageLatencyHistograms.getPercentiles());
+                break;
+            case "resetStageLatencies":
+                stageLatencyHistograms.reset();
+                result.success("Success");
+                break;
+            case "getBitmapPoolStats":
+                result.success(bitmapPool.getStats());
+                break;
+            case "setBitmapPoolLimit":
+                setBitmapPoolLimit(call, result);
+                break;
+            case "getResultCacheStats":
+                result.success(resultCache.getStats());
+                break;
+            case "setResultCacheLimits":
+                setResultCacheLimits(call, result);
+                break;
+            case "clearResultCache":
+                resultCache.clear();
+                result.success("Success");
+                break;
+            case "setTelemetryRate":
+                setTelemetryRate(call, result);
+                break;
+            case "setResultEmission":
+                setResultEmission(call, result);
+                break;
+            case "setBinaryResults":
+                setBinaryResults(call, result);
+                break;
+            case "setIdleInference":
+                setIdleInference(call, result);
+                break;
+            case "setRgbaOutput":
+                setRgbaOutput(call, result);
+                break;
+            case "setMotionGate":
+                setMotionGate(call, result);
+                break;
+            case "setTracking":
+                setTracking(call, result);
+                break;
+            case "setLatencyTarget":
+                setLatencyTarget(call, result);
+                break;
             case "detectImage":
                 detectImage(call, result);
                 break;
+            case "detectImages":
+                detectImages(call, result);
+                break;
+            case "detectImageTiled":
+                detectImageTiled(call, result);
+                break;
             case "classifyImage":
                 classifyImage(call, result);
                 break;
+            case "detectDirectory":
+                detectDirectory(call, result);
+                break;
+            case "classifyDirectory":
+                classifyDirectory(call, result);
+                break;
+            case "cancelDirectoryJob":
+                if (directoryJob != null) {
+                    directoryJob.cancel();
+                }
+                result.success("Success");
+                break;
             case "setLensDirection":
                 setLensDirection(call, result);
                 break;
@@ -125,16 +281,22 @@ public class MethodCallHandler implements MethodChannel.MethodCallHandler {
         }
 
         YoloModel yoloModel = null;
+        Predictor nextPredictor = null;
+        String nextModelId = "";
         String type = (String) model.get("type");
         String task = (String) model.get("task");
         String format = (String) model.get("format");
         if (Objects.equals(task, "detect")) {
             if (Objects.equals(format, "tflite")) {
-                predictor = new TfliteDetector(context);
+                nextPredictor = new TfliteDetector(context);
+            }
+        } else if (Objects.equals(task, "segment")) {
+            if (Objects.equals(format, "tflite")) {
+                nextPredictor = new TfliteSegmenter(context);
             }
         } else if (Objects.equals(task, "classify")) {
             if (Objects.equals(format, "tflite")) {
-                predictor = new TfliteClassifier(context);
+                nextPredictor = new TfliteClassifier(context);
             }
         } else {
             return;
@@ -146,72 +308,107 @@ public class MethodCallHandler implements MethodChannel.MethodCallHandler {
                 String metadataPath = (String) model.get("metadataPath");
 
                 yoloModel = new LocalYoloModel(task, format, modelPath, metadataPath);
+                nextModelId = task + ":" + modelPath;
                 break;
             case "remote":
                 String modelUrl = (String) model.get("modelUrl");
 
                 yoloModel = new RemoteYoloModel(modelUrl, task);
+                nextModelId = task + ":" + modelUrl;
                 break;
         }
 
-        try {
-            Object useGpuObject = call.argument("useGpu");
-            boolean useGpu = false;
-            if (useGpuObject != null) {
-                useGpu = (boolean) useGpuObject;
+        final Predictor loadingPredictor = nextPredictor;
+        final YoloModel loadingModel = yoloModel;
+        final String loadingModelId = nextModelId;
+        // The current model keeps running until the new one is loaded and warmed up
+        modelLoader.execute(() -> {
+            try {
+                loadingPredictor.loadModel(loadingModel, true);
+                loadingPredictor.setBitmapPool(bitmapPool);
+                loadingPredictor.warmUp();
+            } catch (Exception e) {
+                if (loadingPredictor != null) {
+                    loadingPredictor.close();
+                }
+                handler.post(() -> result.error("PredictorError", "Invalid model", null));
+                return;
             }
+            handler.post(() -> {
+                swapPredictor(loadingPredictor, loadingModelId);
+                result.success("Success");
+            });
+        });
+    }
 
-            predictor.loadModel(yoloModel, true);
+    /**
+     * Makes {@code nextPredictor} the live predictor. Runs on the main thread, where inference
+     * runs, so no frame sees a half-swapped pipeline.
+     */
+    private void swapPredictor(Predictor nextPredictor, String nextModelId) {
+        final Predictor previousPredictor = predictor;
+        predictor = nextPredictor;
+        modelId = nextModelId;
+        predictorSettings.clear();
+        latencyTargetEnabled = false;
 
-            setPredictorFrameProcessor();
-            setPredictorCallbacks();
+        // Results from another model would mix into the job
+        if (directoryJob != null) {
+            directoryJob.cancel();
+        }
 
-            result.success("Success");
-        } catch (Exception e) {
-            result.error("PredictorError", "Invalid model", null);
+        setPredictorCallbacks();
+        setPredictorFrameProcessor();
+        resultDeltaEncoder.reset();
+        if (binaryResults) {
+            resultStreamHandler.setLabels(new ArrayList<>(predictor.labels));
+        }
+
+        // Frames the previous predictor already queued on the main thread run first
+        if (previousPredictor != null) {
+            handler.post(previousPredictor::close);
         }
     }
 
     private void setPredictorFrameProcessor() {
         cameraPreview.setPredictorFrameProcessor(predictor);
+        cameraPreview.setAnalysisConfig(predictor.getModelInputSize(), cameraPreview.isRgbaOutput());
     }
 
     private void setPredictorCallbacks() {
-        if (predictor instanceof Detector) {
-            // Multiply by 3/4 instead of 4/3 because the camera preview frame is rotated -90°
-            // float newWidth = heightDp * 3 / 4;
-            float newWidth = heightDp * CAMERA_PREVIEW_SIZE.getHeight() / CAMERA_PREVIEW_SIZE.getWidth();
-            final float offsetX = (widthDp - newWidth) / 2;
-
-            ((Detector) predictor).setObjectDetectionResultCallback(result -> {
-                List<Map<String, Object>> objects = new ArrayList<>();
-
-                for (float[] obj : result) {
-                    Map<String, Object> objectMap = new HashMap<>();
-
-                    float x = obj[0] * newWidth + offsetX;
-                    float y = obj[1] * heightDp;
-                    float width = obj[2] * newWidth;
-                    float height = obj[3] * heightDp;
-                    float confidence = obj[4];
-                    int index = (int) obj[5];
-                    String label = index < predictor.labels.size() ? predictor.labels.get(index) : "";
-
-                    objectMap.put("x", x);
-                    objectMap.put("y", y);
-                    objectMap.put("width", width);
-                    objectMap.put("height", height);
-                    objectMap.put("confidence", confidence);
-                    objectMap.put("index", index);
-                    objectMap.put("label", label);
-
-                    objects.add(objectMap);
+        // Frames a replaced predictor still had queued finish without emitting results
+        final Predictor target = predictor;
+        if (target instanceof Segmenter) {
+            ((Segmenter) target).setSegmentationResultCallback((result, masks) -> {
+                if (target != predictor) {
+                    return;
                 }
+                List<Map<String, Object>> objects = toCameraObjects(result);
+                putMasks(objects, masks, ((Segmenter) target).getMaskResolution());
 
                 resultStreamHandler.sink(objects);
             });
-        } else if (predictor instanceof Classifier) {
-            ((Classifier) predictor).setClassificationResultCallback(result -> {
+        } else if (target instanceof Detector) {
+            ((Detector) target).setObjectDetectionResultCallback(result -> {
+                if (target != predictor) {
+                    return;
+                }
+                if (deltaResults) {
+                    ResultDeltaEncoder.Delta delta = resultDeltaEncoder.encode(result);
+                    if (delta != null) {
+                        resultStreamHandler.sink(toDeltaEvent(delta));
+                    }
+                } else if (binaryResults) {
+                    resultStreamHandler.sink(toCameraBuffer(result));
+                } else {
+                    resultStreamHandler.sink(toCameraObjects(result));
+                }
+            });
+        } else if (target instanceof Classifier) {
+            ((Classifier) target).setClassificationResultCallback(result -> {
+                if (target != predictor) {
+                    return;
+                }
                 List<Map<String, Object>> objects = new ArrayList<>();
 
                 for (ClassificationResult classificationResult : result) {
@@ -227,8 +424,134 @@ public class MethodCallHandler implements MethodChannel.MethodCallHandler {
             });
         }
 
-        predictor.setFpsRateCallback(fpsRateStreamHandler::sink);
-        predictor.setInferenceTimeCallback(inferenceTimeStreamHandler::sink);
+        target.setFpsRateCallback(fps -> {
+            telemetryStreamHandler.recordFps(fps);
+            fpsRateStreamHandler.sink(fps);
+        });
+        target.setStageTimeCallback(this::recordStage);
+        target.setDroppedFrameCallback(telemetryStreamHandler::recordDroppedFrame);
+        target.setInferenceTimeCallback(inferenceTime -> {
+            telemetryStreamHandler.recordInferenceTime(inferenceTime);
+            if (latencyTargetEnabled && target instanceof Detector) {
+                inferenceTimeStreamHandler.sink(inferenceTime, ((Detector) target).getInputSize());
+            } else {
+                inferenceTimeStreamHandler.sink(inferenceTime);
+            }
+        });
+    }
+
+    private void recordStage(int stage, long nanos) {
+        stageLatencyHistograms.record(stage, nanos);
+        telemetryStreamHandler.recordStageTime(stage, nanos);
+    }
+
+    private List<Map<String, Object>> toCameraObjects(float[][] result) {
+        List<Map<String, Object>> objects = new ArrayList<>();
+
+        for (float[] obj : result) {
+            objects.add(toCameraObject(obj));
+        }
+        return objects;
+    }
+
+    private Map<String, Object> toCameraObject(float[] obj) {
+        // Multiply by 3/4 instead of 4/3 because the camera preview frame is rotated -90°
+        // float newWidth = heightDp * 3 / 4;
+        final Size analysisSize = cameraPreview.getAnalysisSize();
+        float newWidth = heightDp * analysisSize.getHeight() / analysisSize.getWidth();
+        final float offsetX = (widthDp - newWidth) / 2;
+
+        Map<String, Object> objectMap = new HashMap<>();
+
+        float x = obj[0] * newWidth + offsetX;
+        float y = obj[1] * heightDp;
+        float width = obj[2] * newWidth;
+        float height = obj[3] * heightDp;
+        float confidence = obj[4];
+        int index = (int) obj[5];
+        String label = index < predictor.labels.size() ? predictor.labels.get(index) : "";
+
+        objectMap.put("x", x);
+        objectMap.put("y", y);
+        objectMap.put("width", width);
+        objectMap.put("height", height);
+        objectMap.put("confidence", confidence);
+        objectMap.put("index", index);
+        objectMap.put("label", label);
+        if (obj.length > 6) {
+            objectMap.put("trackId", (int) obj[6]);
+        }
+
+        return objectMap;
+    }
+
+    private Map<String, Object> toDeltaEvent(ResultDeltaEncoder.Delta delta) {
+        Map<String, Object> event = new HashMap<>();
+        if (delta.cleared) {
+            event.put("type", "cleared");
+            return event;
+        }
+
+        List<Map<String, Object>> added = new ArrayList<>(delta.added.size());
+        for (ResultDeltaEncoder.Entry entry : delta.added) {
+            Map<String, Object> objectMap = toCameraObject(entry.detection);
+            objectMap.put("id", entry.id);
+            added.add(objectMap);
+        }
+        if (delta.baseline) {
+            event.put("type", "baseline");
+            event.put("objects", added);
+            return event;
+        }
+
+        List<Map<String, Object>> moved = new ArrayList<>(delta.moved.size());
+        for (ResultDeltaEncoder.Entry entry : delta.moved) {
+            Map<String, Object> objectMap = toCameraObject(entry.detection);
+            objectMap.put("id", entry.id);
+            moved.add(objectMap);
+        }
+
+        event.put("type", "delta");
+        event.put("added", added);
+        event.put("moved", moved);
+        event.put("removed", delta.removed);
+        return event;
+    }
+
+    private float[] toCameraBuffer(float[][] result) {
+        final Size analysisSize = cameraPreview.getAnalysisSize();
+        float newWidth = heightDp * analysisSize.getHeight() / analysisSize.getWidth();
+        final float offsetX = (widthDp - newWidth) / 2;
+
+        // Tracked rows carry the track ID as an extra column
+        final int detectionSize = result.length > 0 && result[0].length > BINARY_DETECTION_SIZE ?
+                BINARY_DETECTION_SIZE + 1 : BINARY_DETECTION_SIZE;
+        float[] frame = new float[BINARY_HEADER_SIZE + result.length * detectionSize];
+        frame[0] = binaryFrameNumber++;
+        frame[1] = result.length;
+        frame[2] = detectionSize;
+
+        int offset = BINARY_HEADER_SIZE;
+        for (float[] obj : result) {
+            frame[offset] = obj[0] * newWidth + offsetX;
+            frame[offset + 1] = obj[1] * heightDp;
+            frame[offset + 2] = obj[2] * newWidth;
+            frame[offset + 3] = obj[3] * heightDp;
+            frame[offset + 4] = obj[4];
+            frame[offset + 5] = obj[5];
+            if (detectionSize > BINARY_DETECTION_SIZE) {
+                frame[offset + 6] = obj[6];
+            }
+            offset += detectionSize;
+        }
+        return frame;
+    }
+
+    private void putMasks(List<Map<String, Object>> objects, byte[][] masks, int maskResolution) {
+        for (int i = 0; i < objects.size() && i < masks.length; i++) {
+            objects.get(i).put("mask", masks[i]);
+            objects.get(i).put("maskResolution", maskResolution);
+        }
     }
 
     private void setConfidenceThreshold(MethodCall call, MethodChannel.Result result) {
@@ -236,6 +559,7 @@ public class MethodCallHandler implements MethodChannel.MethodCallHandler {
         if (confidenceObject != null) {
             final double confidence = (double) confidenceObject;
             predictor.setConfidenceThreshold((float) confidence);
+            predictorSettings.put("confidence", confidence);
         }
     }
 
@@ -244,6 +568,7 @@ public class MethodCallHandler implements MethodChannel.MethodCallHandler {
         if (iouObject != null) {
             final double iou = (double) iouObject;
             ((Detector) predictor).setIouThreshold((float) iou);
+            predictorSettings.put("iou", iou);
         }
     }
 
@@ -252,7 +577,225 @@ public class MethodCallHandler implements MethodChannel.MethodCallHandler {
         if (numItemsObject != null) {
             final int numItems = (int) numItemsObject;
             ((Detector) predictor).setNumItemsThreshold(numItems);
+            predictorSettings.put("numItems", numItems);
+        }
+    }
+
+    private void setClassFilter(MethodCall call, MethodChannel.Result result) {
+        if (!(predictor instanceof Detector)) {
+            result.error("PredictorError", "Class filters are only supported by detectors", null);
+            return;
+        }
+
+        List<Integer> classes = call.argument("classes");
+        int[] classFilter = null;
+        if (classes != null && !classes.isEmpty()) {
+            classFilter = new int[classes.size()];
+            for (int i = 0; i < classFilter.length; i++) {
+                classFilter[i] = classes.get(i);
+                if (classFilter[i] < 0 || classFilter[i] >= predictor.labels.size()) {
+                    result.error("PredictorError", "Class index " + classFilter[i] + " is out of range", null);
+                    return;
+                }
+            }
+            predictorSettings.put("classFilter", classes);
+        } else {
+            predictorSettings.remove("classFilter");
+        }
+        ((Detector) predictor).setClassFilter(classFilter);
+        result.success("Success");
+    }
+
+    private void setZones(MethodCall call, MethodChannel.Result result) {
+        if (!(predictor instanceof Detector)) {
+            result.error("PredictorError", "Zones are only supported by detectors", null);
+            return;
+        }
+
+        List<List<Double>> polygons = call.argument("zones");
+        float[][] zones = null;
+        if (polygons != null && !polygons.isEmpty()) {
+            zones = new float[polygons.size()][];
+            for (int z = 0; z < zones.length; z++) {
+                List<Double> polygon = polygons.get(z);
+                if (polygon.size() < 6 || polygon.size() % 2 != 0) {
+                    result.error("PredictorError", "A zone needs at least three x, y points", null);
+                    return;
+                }
+                zones[z] = new float[polygon.size()];
+                for (int i = 0; i < zones[z].length; i++) {
+                    zones[z][i] = polygon.get(i).floatValue();
+                }
+            }
+            predictorSettings.put("zones", polygons);
+        } else {
+            predictorSettings.remove("zones");
+        }
+        ((Detector) predictor).setZones(zones);
+        result.success("Success");
+    }
+
+    private void setResultMaxAge(MethodCall call, MethodChannel.Result result) {
+        Object maxAgeObject = call.argument("maxAge");
+        if (maxAgeObject != null) {
+            resultStreamHandler.setMaxAge((int) maxAgeObject);
+        }
+        result.success("Success");
+    }
+
+    private void setTelemetryRate(MethodCall call, MethodChannel.Result result) {
+        Object rateObject = call.argument("rate");
+        if (rateObject != null) {
+            telemetryStreamHandler.setRate((double) rateObject);
+        }
+        result.success("Success");
+    }
+
+    private void setResultEmission(MethodCall call, MethodChannel.Result result) {
+        String mode = call.argument("mode");
+        Object iouObject = call.argument("iouTolerance");
+        Object confidenceObject = call.argument("confidenceTolerance");
+
+        if (iouObject != null && confidenceObject != null) {
+            resultDeltaEncoder.setTolerances((float) (double) iouObject, (float) (double) confidenceObject);
+        }
+        resultDeltaEncoder.reset();
+        deltaResults = Objects.equals(mode, "delta");
+        result.success("Success");
+    }
+
+    private void setBinaryResults(MethodCall call, MethodChannel.Result result) {
+        Object enabledObject = call.argument("enabled");
+        binaryResults = enabledObject != null && (boolean) enabledObject;
+        resultStreamHandler.setLabels(binaryResults && predictor != null ? new ArrayList<>(predictor.labels) : null);
+        result.success("Success");
+    }
+
+    private void setLatencyTarget(MethodCall call, MethodChannel.Result result) {
+        if (!(predictor instanceof Detector)) {
+            result.error("PredictorError", "Latency target is only supported by detectors", null);
+            return;
+        }
+
+        Object latencyObject = call.argument("latency");
+        final float latency = latencyObject != null ? (float) (double) latencyObject : 0;
+
+        int[] inputSizes = null;
+        List<Integer> inputSizesObject = call.argument("inputSizes");
+        if (inputSizesObject != null) {
+            inputSizes = new int[inputSizesObject.size()];
+            for (int i = 0; i < inputSizes.length; i++) {
+                inputSizes[i] = inputSizesObject.get(i);
+            }
+        }
+
+        if (((Detector) predictor).setLatencyTarget(latency, inputSizes)) {
+            latencyTargetEnabled = latency > 0;
+            result.success("Success");
+        } else {
+            result.error("PredictorError", "Model input shape is not dynamic", null);
+        }
+    }
+
+    private void startTrace(MethodCall call, MethodChannel.Result result) {
+        Object framesObject = call.argument("frames");
+        PipelineTracer.start(framesObject != null ? (int) framesObject : 300);
+        result.success("Success");
+    }
+
+    private void stopTrace(MethodCall call, MethodChannel.Result result) {
+        File file = new File(context.getCacheDir(), "ultralytics_trace_" + System.currentTimeMillis() + ".json");
+        try {
+            if (PipelineTracer.stop(file)) {
+                result.success(file.getAbsolutePath());
+            } else {
+                result.error("PredictorError", "Tracing was not started", null);
+            }
+        } catch (IOException e) {
+            result.error("PredictorError", "Failed to write trace: " + e.getMessage(), null);
+        }
+    }
+
+    private void setIdleInference(MethodCall call, MethodChannel.Result result) {
+        Object enabledObject = call.argument("enabled");
+        Object intervalObject = call.argument("heartbeatIntervalMs");
+        idleInferenceEnabled = enabledObject == null || (boolean) enabledObject;
+        idleIntervalMs = intervalObject != null ? Math.max(0, (int) intervalObject) : 0;
+
+        updateIdleState();
+        result.success("Success");
+    }
+
+    private void setRgbaOutput(MethodCall call, MethodChannel.Result result) {
+        Object enabledObject = call.argument("enabled");
+        final boolean enabled = enabledObject != null && (boolean) enabledObject;
+
+        final int modelInputSize = predictor != null ? predictor.getModelInputSize() : 0;
+        cameraPreview.setAnalysisConfig(modelInputSize, enabled);
+        result.success("Success");
+    }
+
+    private void setMotionGate(MethodCall call, MethodChannel.Result result) {
+        Object enabledObject = call.argument("enabled");
+        Object thresholdObject = call.argument("threshold");
+        final boolean enabled = enabledObject != null && (boolean) enabledObject;
+        final float threshold = thresholdObject != null ? (float) (double) thresholdObject : 4.f;
+
+        cameraPreview.setMotionGate(enabled, threshold);
+        result.success("Success");
+    }
+
+    private void setBitmapPoolLimit(MethodCall call, MethodChannel.Result result) {
+        Object maxBytesObject = call.argument("maxBytes");
+        if (maxBytesObject == null) {
+            result.error("PredictorError", "Invalid pool limit", null);
+            return;
         }
+
+        bitmapPool.setMaxBytes(((Number) maxBytesObject).longValue());
+        result.success("Success");
+    }
+
+    private void setTracking(MethodCall call, MethodChannel.Result result) {
+        if (!(predictor instanceof Detector)) {
+            result.error("PredictorError", "Tracking is only supported by detectors", null);
+            return;
+        }
+
+        Object enabledObject = call.argument("enabled");
+        Object intervalObject = call.argument("detectionInterval");
+        Object confidenceObject = call.argument("minTrackConfidence");
+        final boolean enabled = enabledObject != null && (boolean) enabledObject;
+        final int detectionInterval = intervalObject != null ? (int) intervalObject : 3;
+        final float minTrackConfidence = confidenceObject != null ? (float) (double) confidenceObject : 0.35f;
+
+        if (((Detector) predictor).setTracking(enabled, detectionInterval, minTrackConfidence)) {
+            // Track IDs change the shape of the results, start the delta baseline over
+            resultDeltaEncoder.reset();
+            result.success("Success");
+        } else {
+            result.error("PredictorError", "Tracking is not supported by this task", null);
+        }
+    }
+
+    private void setMaskResolution(MethodCall call, MethodChannel.Result result) {
+        if (!(predictor instanceof Segmenter)) {
+            result.error("PredictorError", "Mask resolution is only supported by segmenters", null);
+            return;
+        }
+
+        Object resolutionObject = call.argument("resolution");
+        if (resolutionObject != null) {
+            final int resolution = (int) resolutionObject;
+            if (resolution <= 0) {
+                result.error("PredictorError", "Mask resolution must be positive", null);
+                return;
+            }
+            final Segmenter segmenter = (Segmenter) predictor;
+            segmenter.setMaskResolution(resolution);
+            predictorSettings.put("maskResolution", segmenter.getMaskResolution());
+        }
+        result.success("Success");
     }
 
     private void setLensDirection(MethodCall call, MethodChannel.Result result) {
@@ -264,20 +807,26 @@ public class MethodCallHandler implements MethodChannel.MethodCallHandler {
     }
 
     private void closeCamera(MethodCall call, MethodChannel.Result result) {
-//        ncnnCameraPreview.closeCamera();
+        cameraPreview.closeCamera();
+        if (predictor != null) {
+            predictor.releaseFrameBuffers();
+        }
+        result.success("Success");
     }
 
     private void startCamera(MethodCall call, MethodChannel.Result result) {
-        // TODO: Resume detector
-        // startCamera(0);
+        cameraPreview.startCamera();
+        result.success("Success");
     }
 
     private void pauseLivePrediction(MethodCall call, MethodChannel.Result result) {
-//        ncnnCameraPreview.pauseLivePrediction();
+        cameraPreview.pauseLivePrediction();
+        result.success("Success");
     }
 
     private void resumeLivePrediction(MethodCall call, MethodChannel.Result result) {
-//        ncnnCameraPreview.resumeLivePrediction();
+        cameraPreview.resumeLivePrediction();
+        result.success("Success");
     }
 
     private void detectImage(MethodCall call, MethodChannel.Result result) {
@@ -285,37 +834,197 @@ public class MethodCallHandler implements MethodChannel.MethodCallHandler {
             Object imagePathObject = call.argument("imagePath");
             if (imagePathObject != null) {
                 final String imagePath = (String) imagePathObject;
-                Bitmap bitmap = BitmapFactory.decodeFile(imagePath);
-                final float[][] res = (float[][]) predictor.predict(bitmap);
+                withResultCacheKey(imagePath, cacheKey -> {
+                    final List<Map<String, Object>> cached = cacheKey != null ? resultCache.get(cacheKey) : null;
+                    if (cached != null) {
+                        result.success(cached);
+                        return;
+                    }
 
-                float scaleFactor = widthDp / bitmap.getWidth();
-                float newHeight = bitmap.getHeight() * scaleFactor;
-                List<Map<String, Object>> objects = new ArrayList<>();
-                for (float[] obj : res) {
-                    Map<String, Object> objectMap = new HashMap<>();
+                    final int[] imageSize = new int[2];
+                    Bitmap bitmap = bitmapPool.decodeFile(imagePath, predictor.getModelInputSize(), imageSize);
+                    if (bitmap == null) {
+                        result.error("PredictorError", "Invalid image", null);
+                        return;
+                    }
+                    final float[][] res = (float[][]) predictor.predict(bitmap);
 
-                    float x = obj[0] * widthDp;
-                    float y = obj[1] * newHeight;
-                    float width = obj[2] * widthDp;
-                    float height = obj[3] * newHeight;
-                    float confidence = obj[4];
-                    int index = (int) obj[5];
-                    String label = index < predictor.labels.size() ? predictor.labels.get(index) : "";
-
-                    objectMap.put("x", x);
-                    objectMap.put("y", y);
-                    objectMap.put("width", width);
-                    objectMap.put("height", height);
-                    objectMap.put("confidence", confidence);
-                    objectMap.put("index", index);
-                    objectMap.put("label", label);
+                    List<Map<String, Object>> objects = toImageObjects(res, imageSize[0], imageSize[1]);
+                    bitmapPool.release(bitmap);
+                    if (predictor instanceof Segmenter) {
+                        Segmenter segmenter = (Segmenter) predictor;
+                        putMasks(objects, segmenter.getMasks(), segmenter.getMaskResolution());
+                    }
+                    if (cacheKey != null) {
+                        resultCache.put(cacheKey, objects);
+                    }
+                    result.success(objects);
+                });
+            }
+        }
+    }
 
-                    objects.add(objectMap);
+    /**
+     * Runs {@code action} on the main thread with the result cache key of an image for the model
+     * and settings loaded at that point, or null if the file cannot be read, in which case the
+     * request is not cached. Files seen before are keyed right away, new ones are hashed first.
+     */
+    private void withResultCacheKey(String imagePath, Consumer<String> action) {
+        final String knownContentKey = resultCache.knownContentKey(imagePath);
+        if (knownContentKey != null) {
+            action.accept(resultCacheKey(knownContentKey));
+            return;
+        }
+        resultCacheHasher.execute(() -> {
+            String contentKey;
+            try {
+                contentKey = resultCache.contentKey(imagePath);
+            } catch (IOException e) {
+                contentKey = null;
+            }
+            final String hashedContentKey = contentKey;
+            handler.post(() -> action.accept(hashedContentKey != null ? resultCacheKey(hashedContentKey) : null));
+        });
+    }
+
+    private String resultCacheKey(String contentKey) {
+        String settings = modelId + predictorSettings;
+        if (predictor instanceof Detector) {
+            // Adaptive resolution changes the input size between calls with the same settings
+            settings += "@" + ((Detector) predictor).getInputSize();
+        }
+        return ResultCache.key(settings, contentKey);
+    }
+
+    private void setResultCacheLimits(MethodCall call, MethodChannel.Result result) {
+        Object maxEntriesObject = call.argument("maxEntries");
+        Object maxBytesObject = call.argument("maxBytes");
+        if (maxEntriesObject == null || maxBytesObject == null) {
+            result.error("PredictorError", "Invalid cache limits", null);
+            return;
+        }
+
+        resultCache.setLimits((int) maxEntriesObject, ((Number) maxBytesObject).longValue());
+        result.success("Success");
+    }
+
+    private void detectImages(MethodCall call, MethodChannel.Result result) {
+        if (!(predictor instanceof Detector)) {
+            result.error("PredictorError", "Batched detection requires a detector", null);
+            return;
+        }
+
+        List<String> imagePaths = call.argument("imagePaths");
+        if (imagePaths == null) {
+            result.error("PredictorError", "Invalid image paths", null);
+            return;
+        }
+
+        final Detector detector = (Detector) predictor;
+        final int maxBatchSize = detector.getMaxBatchSize();
+        List<List<Map<String, Object>>> images = new ArrayList<>(imagePaths.size());
+        final int[] imageSizes = new int[2 * maxBatchSize];
+        final int[] imageSize = new int[2];
+
+        // Decode one batch at a time so at most one batch of images is held in memory
+        for (int start = 0; start < imagePaths.size(); start += maxBatchSize) {
+            final int end = Math.min(start + maxBatchSize, imagePaths.size());
+            List<Bitmap> bitmaps = new ArrayList<>(end - start);
+            for (int i = start; i < end; i++) {
+                Bitmap bitmap = bitmapPool.decodeFile(imagePaths.get(i), detector.getModelInputSize(), imageSize);
+                if (bitmap == null) {
+                    for (Bitmap decoded : bitmaps) {
+                        bitmapPool.release(decoded);
+                    }
+                    result.error("PredictorError", "Invalid image: " + imagePaths.get(i), null);
+                    return;
                 }
+                bitmaps.add(bitmap);
+                imageSizes[2 * (i - start)] = imageSize[0];
+                imageSizes[2 * (i - start) + 1] = imageSize[1];
+            }
 
-                result.success(objects);
+            final float[][][] res;
+            try {
+                res = detector.predict(bitmaps);
+            } catch (RuntimeException e) {
+                for (Bitmap decoded : bitmaps) {
+                    bitmapPool.release(decoded);
+                }
+                result.error("PredictorError", "Batched detection failed: " + e.getMessage(), null);
+                return;
             }
+            for (int i = 0; i < bitmaps.size(); i++) {
+                images.add(toImageObjects(res[i], imageSizes[2 * i], imageSizes[2 * i + 1]));
+                bitmapPool.release(bitmaps.get(i));
+            }
+        }
+
+        result.success(images);
+    }
+
+    private void detectImageTiled(MethodCall call, MethodChannel.Result result) {
+        if (!(predictor instanceof Detector) || predictor instanceof Segmenter) {
+            result.error("PredictorError", "Tiled detection requires a detector", null);
+            return;
+        }
+
+        String imagePath = call.argument("imagePath");
+        Object tileSizeObject = call.argument("tileSize");
+        Object overlapObject = call.argument("overlap");
+        final int tileSize = tileSizeObject != null ? (int) tileSizeObject : predictor.getModelInputSize();
+        final float overlap = overlapObject != null ? (float) (double) overlapObject : 0.2f;
+        if (tileSize <= 0 || overlap < 0 || overlap >= 1) {
+            result.error("PredictorError", "Invalid tile size or overlap", null);
+            return;
+        }
+
+        // Tiles need the full resolution, so the image is not subsampled
+        Bitmap bitmap = imagePath != null ? bitmapPool.decodeFile(imagePath) : null;
+        if (bitmap == null) {
+            result.error("PredictorError", "Invalid image", null);
+            return;
         }
+        final float[][] res;
+        try {
+            res = ((Detector) predictor).predictTiled(bitmap, tileSize, overlap);
+        } catch (RuntimeException e) {
+            bitmapPool.release(bitmap);
+            result.error("PredictorError", "Tiled detection failed: " + e.getMessage(), null);
+            return;
+        }
+        List<Map<String, Object>> objects = toImageObjects(res, bitmap.getWidth(), bitmap.getHeight());
+        bitmapPool.release(bitmap);
+
+        result.success(objects);
+    }
+
+    private List<Map<String, Object>> toImageObjects(float[][] res, int imageWidth, int imageHeight) {
+        float scaleFactor = widthDp / imageWidth;
+        float newHeight = imageHeight * scaleFactor;
+        List<Map<String, Object>> objects = new ArrayList<>();
+        for (float[] obj : res) {
+            Map<String, Object> objectMap = new HashMap<>();
+
+            float x = obj[0] * widthDp;
+            float y = obj[1] * newHeight;
+            float width = obj[2] * widthDp;
+            float height = obj[3] * newHeight;
+            float confidence = obj[4];
+            int index = (int) obj[5];
+            String label = index < predictor.labels.size() ? predictor.labels.get(index) : "";
+
+            objectMap.put("x", x);
+            objectMap.put("y", y);
+            objectMap.put("width", width);
+            objectMap.put("height", height);
+            objectMap.put("confidence", confidence);
+            objectMap.put("index", index);
+            objectMap.put("label", label);
+
+            objects.add(objectMap);
+        }
+        return objects;
     }
 
     private void classifyImage(MethodCall call, MethodChannel.Result result) {
@@ -323,22 +1032,95 @@ public class MethodCallHandler implements MethodChannel.MethodCallHandler {
             Object imagePathObject = call.argument("imagePath");
             if (imagePathObject != null) {
                 final String imagePath = (String) imagePathObject;
-                Bitmap bitmap = BitmapFactory.decodeFile(imagePath);
-                final List<ClassificationResult> res = (List<ClassificationResult>) predictor.predict(bitmap);
+                withResultCacheKey(imagePath, cacheKey -> {
+                    final List<Map<String, Object>> cached = cacheKey != null ? resultCache.get(cacheKey) : null;
+                    if (cached != null) {
+                        result.success(cached);
+                        return;
+                    }
 
-                List<Map<String, Object>> objects = new ArrayList<>();
-                for (ClassificationResult classificationResult : res) {
-                    Map<String, Object> objectMap = new HashMap<>();
+                    Bitmap bitmap = bitmapPool.decodeFile(imagePath, predictor.getModelInputSize(), null);
+                    if (bitmap == null) {
+                        result.error("PredictorError", "Invalid image", null);
+                        return;
+                    }
+                    final List<ClassificationResult> res = (List<ClassificationResult>) predictor.predict(bitmap);
+                    bitmapPool.release(bitmap);
 
-                    objectMap.put("confidence", classificationResult.confidence);
-                    objectMap.put("index", classificationResult.index);
-                    objectMap.put("label", classificationResult.label);
-                    objects.add(objectMap);
-                }
+                    List<Map<String, Object>> objects = toClassificationObjects(res);
+                    if (cacheKey != null) {
+                        resultCache.put(cacheKey, objects);
+                    }
+                    result.success(objects);
+                });
+            }
+        }
+    }
+
+    private List<Map<String, Object>> toClassificationObjects(List<ClassificationResult> res) {
+        List<Map<String, Object>> objects = new ArrayList<>();
+        for (ClassificationResult classificationResult : res) {
+            Map<String, Object> objectMap = new HashMap<>();
+
+            objectMap.put("confidence", classificationResult.confidence);
+            objectMap.put("index", classificationResult.index);
+            objectMap.put("label", classificationResult.label);
+            objects.add(objectMap);
+        }
+        return objects;
+    }
 
-                result.success(objects);
+    private void detectDirectory(MethodCall call, MethodChannel.Result result) {
+        if (!(predictor instanceof Detector)) {
+            result.error("PredictorError", "Directory detection requires a detector", null);
+            return;
+        }
+
+        final Predictor jobPredictor = predictor;
+        startDirectoryJob(call, result, (bitmap, width, height) -> {
+            final float[][] res = (float[][]) jobPredictor.predict(bitmap);
+            List<Map<String, Object>> objects = toImageObjects(res, width, height);
+            if (jobPredictor instanceof Segmenter) {
+                Segmenter segmenter = (Segmenter) jobPredictor;
+                putMasks(objects, segmenter.getMasks(), segmenter.getMaskResolution());
             }
+            return objects;
+        });
+    }
+
+    private void classifyDirectory(MethodCall call, MethodChannel.Result result) {
+        if (!(predictor instanceof Classifier)) {
+            result.error("PredictorError", "Directory classification requires a classifier", null);
+            return;
         }
+
+        final Predictor jobPredictor = predictor;
+        startDirectoryJob(call, result, (bitmap, width, height) ->
+                toClassificationObjects((List<ClassificationResult>) jobPredictor.predict(bitmap)));
+    }
+
+    private void startDirectoryJob(MethodCall call, MethodChannel.Result result, DirectoryJob.Inference inference) {
+        if (directoryJob != null) {
+            result.error("PredictorError", "A directory job is already running", null);
+            return;
+        }
+
+        String directoryPath = call.argument("directoryPath");
+        String resumeAfter = call.argument("resumeAfter");
+        if (directoryPath == null || !new File(directoryPath).isDirectory()) {
+            result.error("PredictorError", "Invalid directory", null);
+            return;
+        }
+
+        directoryJob = new DirectoryJob(new File(directoryPath), resumeAfter, bitmapPool, predictor.getModelInputSize(),
+                inference, (job, event) -> {
+                    if (job == directoryJob && "done".equals(event.get("type"))) {
+                        directoryJob = null;
+                    }
+                    directoryJobStreamHandler.sink(event);
+                });
+        new Thread(directoryJob, "ultralytics-directory-job").start();
+        result.success("Success");
     }
 
 
@@ -0,0 +1,79 @@
+// Ultralytics 🚀 AGPL-3.0 License - https://ultralytics.com/license
+
+package com.ultralytics.ultralytics_yolo;
+
+import androidx.camera.core.ImageProxy;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Cheap scene change check for camera frames. The luma plane is sampled on a coarse grid and
+ * compared with the samples of the last frame handed to the predictor, so static scenes can skip
+ * color conversion and inference entirely.
+ * <p>
+ * The reference is the last processed frame, whether the predictor ran the model on it or only
+ * advanced its tracker, so slow drift is measured from there and not from an older frame.
+ */
+public class MotionGate {
+    private static final int GRID_WIDTH = 32;
+    private static final int GRID_HEIGHT = 24;
+    private static final float DEFAULT_THRESHOLD = 4.f; // Mean absolute luma difference (0-255)
+
+    private byte[] reference = new byte[GRID_WIDTH * GRID_HEIGHT];
+    private byte[] current = new byte[GRID_WIDTH * GRID_HEIGHT];
+    private boolean hasReference = false;
+    private volatile boolean resetPending = false;
+    private volatile float threshold = DEFAULT_THRESHOLD;
+
+    public void setThreshold(float threshold) {
+        this.threshold = threshold;
+    }
+
+    /**
+     * Lets the next frame through regardless of its content.
+     */
+    public void reset() {
+        resetPending = true;
+    }
+
+    /**
+     * @return True if the frame changed enough since the reference to be processed. Call
+     * {@link #commit()} once it is handed to the predictor.
+     */
+    public boolean accept(ImageProxy imageProxy) {
+        // RGBA frames have a single plane, the red channel of which stands in for luma
+        ImageProxy.PlaneProxy yPlane = imageProxy.getPlanes()[0];
+        ByteBuffer yBuffer = yPlane.getBuffer();
+        final int rowStride = yPlane.getRowStride();
+        final int pixelStride = yPlane.getPixelStride();
+        final int width = imageProxy.getWidth();
+        final int height = imageProxy.getHeight();
+
+        long difference = 0;
+        for (int gy = 0; gy < GRID_HEIGHT; gy++) {
+            int rowOffset = (gy * height / GRID_HEIGHT + height / (2 * GRID_HEIGHT)) * rowStride;
+            for (int gx = 0; gx < GRID_WIDTH; gx++) {
+                int x = gx * width / GRID_WIDTH + width / (2 * GRID_WIDTH);
+                int i = gy * GRID_WIDTH + gx;
+                current[i] = yBuffer.get(rowOffset + x * pixelStride);
+                difference += Math.abs((current[i] & 0xFF) - (reference[i] & 0xFF));
+            }
+        }
+
+        if (resetPending) {
+            resetPending = false;
+            hasReference = false;
+        }
+        return !hasReference || difference >= threshold * GRID_WIDTH * GRID_HEIGHT;
+    }
+
+    /**
+     * Makes the frame last passed to {@link #accept(ImageProxy)} the new reference.
+     */
+    public void commit() {
+        byte[] samples = reference;
+        reference = current;
+        current = samples;
+        hasReference = true;
+    }
+}
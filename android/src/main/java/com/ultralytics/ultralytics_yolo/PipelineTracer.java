@@ -0,0 +1,138 @@
+// Ultralytics 🚀 AGPL-3.0 License - https://ultralytics.com/license
+
+package com.ultralytics.ultralytics_yolo;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Opt-in tracer that records begin and end events of the pipeline stages on every thread, for
+ * viewing in Perfetto or {@code chrome://tracing}.
+ * <p>
+ * Events go into a ring buffer preallocated for a window of frames, so recording never allocates
+ * and long sessions keep only the most recent window. When tracing is off, every call is a single
+ * volatile read.
+ */
+public class PipelineTracer {
+    public static final int ANALYZE = 0; // CameraX analyzer callback
+    public static final int TO_BITMAP = 1; // YUV to bitmap conversion
+    public static final int SET_INPUT = 2; // Input tensor packing
+    public static final int RUN_INFERENCE = 3; // Interpreter invocation
+    public static final int POSTPROCESS = 4; // Output decoding and NMS
+    public static final int EMIT = 5; // Result delivery to the event channel
+    private static final String[] NAMES = {"analyze", "toBitmap", "setInput", "runInference", "postprocess", "emit"};
+    private static final int EVENTS_PER_FRAME = 2 * NAMES.length;
+
+    private static volatile PipelineTracer active;
+
+    private final long[] timestamps;
+    private final long[] threadIds;
+    private final String[] threadNames;
+    private final int[] events; // Event index, negated plus one for end events
+    private final AtomicLong next = new AtomicLong();
+    // Threads that read the tracer before it stopped may still be writing a slot
+    private final AtomicInteger recording = new AtomicInteger();
+    private volatile boolean stopped = false;
+    private final long startNanos = System.nanoTime();
+
+    private PipelineTracer(int capacity) {
+        timestamps = new long[capacity];
+        threadIds = new long[capacity];
+        threadNames = new String[capacity];
+        events = new int[capacity];
+    }
+
+    /**
+     * Starts recording, keeping roughly the last {@code frames} frames.
+     */
+    public static void start(int frames) {
+        active = new PipelineTracer(Math.max(1, frames) * EVENTS_PER_FRAME);
+    }
+
+    /**
+     * Stops recording and writes the window as trace-event JSON, once events that were being
+     * recorded concurrently are complete.
+     *
+     * @return False if tracing was not started.
+     */
+    public static boolean stop(File file) throws IOException {
+        PipelineTracer tracer = active;
+        active = null;
+        if (tracer == null) {
+            return false;
+        }
+        tracer.stopped = true;
+        while (tracer.recording.get() > 0) {
+            Thread.yield();
+        }
+        try (Writer writer = new FileWriter(file)) {
+            tracer.write(writer);
+        }
+        return true;
+    }
+
+    public static void begin(int event) {
+        PipelineTracer tracer = active;
+        if (tracer != null) {
+            tracer.record(event);
+        }
+    }
+
+    public static void end(int event) {
+        PipelineTracer tracer = active;
+        if (tracer != null) {
+            tracer.record(-event - 1);
+        }
+    }
+
+    private void record(int event) {
+        recording.incrementAndGet();
+        try {
+            // Checked after announcing the write, so stop() either sees it or it sees stopped
+            if (stopped) {
+                return;
+            }
+            Thread thread = Thread.currentThread();
+            int slot = (int) (next.getAndIncrement() % events.length);
+            timestamps[slot] = System.nanoTime();
+            threadIds[slot] = thread.getId();
+            threadNames[slot] = thread.getName();
+            events[slot] = event;
+        } finally {
+            recording.decrementAndGet();
+        }
+    }
+
+    private void write(Writer writer) throws IOException {
+        final long count = Math.min(next.get(), events.length);
+        final long first = next.get() - count;
+        Map<Long, String> threads = new HashMap<>();
+        // Trace viewers ignore end events whose begin already fell out of the ring
+        writer.write("{\"traceEvents\":[");
+        for (long i = 0; i < count; i++) {
+            int slot = (int) ((first + i) % events.length);
+            int event = events[slot];
+            boolean isBegin = event >= 0;
+            threads.put(threadIds[slot], threadNames[slot]);
+
+            if (i > 0) writer.write(',');
+            writer.write(String.format(Locale.ROOT,
+                    "{\"name\":\"%s\",\"ph\":\"%s\",\"ts\":%.3f,\"pid\":1,\"tid\":%d}",
+                    NAMES[isBegin ? event : -event - 1], isBegin ? "B" : "E",
+                    (timestamps[slot] - startNanos) / 1000.0, threadIds[slot]));
+        }
+        for (Map.Entry<Long, String> thread : threads.entrySet()) {
+            writer.write(String.format(Locale.ROOT,
+                    ",{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":1,\"tid\":%d,\"args\":{\"name\":\"%s\"}}",
+                    thread.getKey(), thread.getValue().replace("\\", "\\\\").replace("\"", "\\\"")));
+        }
+        writer.write("],\"displayTimeUnit\":\"ms\"}");
+    }
+}
@@ -0,0 +1,188 @@
+// Ultralytics 🚀 AGPL-3.0 License - https://ultralytics.com/license
+
+package com.ultralytics.ultralytics_yolo;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.Adler32;
+import java.util.zip.CRC32;
+
+/**
+ * LRU cache of still-image results, keyed by the content of the image file together with the
+ * model and settings that produced them. A hit skips decoding and inference entirely.
+ * <p>
+ * Content keys are remembered per path, length and modification time, so a file that was seen
+ * before is not read again. Only new or modified files are hashed.
+ * <p>
+ * Sizes are estimates: a fixed cost per result object plus the bytes of its mask, if any.
+ */
+class ResultCache {
+    private static final int DEFAULT_MAX_ENTRIES = 256;
+    private static final long DEFAULT_MAX_BYTES = 4L * 1024 * 1024;
+    private static final int ENTRY_BYTES = 128;
+    private static final int OBJECT_BYTES = 256;
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    // Content keys by path, length and modification time, in access order
+    private final LinkedHashMap<String, String> contentKeys = new LinkedHashMap<>(16, 0.75f, true);
+    private int maxEntries = DEFAULT_MAX_ENTRIES;
+    private long maxBytes = DEFAULT_MAX_BYTES;
+    private long bytes = 0;
+    private long hits = 0;
+    private long misses = 0;
+
+    /**
+     * Only looks at the file attributes, so it is cheap enough for the main thread.
+     *
+     * @return The content key of a file seen before and unchanged since, or null if the file
+     * needs {@link #contentKey(String)}.
+     */
+    synchronized String knownContentKey(String path) {
+        File file = new File(path);
+        return contentKeys.get(fileKey(file));
+    }
+
+    /**
+     * Hashes the whole file with CRC32 and Adler32, two independent checksums. CRC32C is not
+     * available below API 34. Reads the file, so it must not run on the main thread.
+     *
+     * @return A key for the file content.
+     */
+    String contentKey(String path) throws IOException {
+        File file = new File(path);
+        final String fileKey = fileKey(file);
+        synchronized (this) {
+            String known = contentKeys.get(fileKey);
+            if (known != null) {
+                return known;
+            }
+        }
+
+        CRC32 crc32 = new CRC32();
+        Adler32 adler32 = new Adler32();
+        byte[] readBuffer = new byte[READ_BUFFER_SIZE];
+        long length = 0;
+        try (InputStream inputStream = new FileInputStream(file)) {
+            int read;
+            while ((read = inputStream.read(readBuffer)) > 0) {
+                crc32.update(readBuffer, 0, read);
+                adler32.update(readBuffer, 0, read);
+                length += read;
+            }
+        }
+        final String contentKey = String.format(Locale.ROOT, "%d:%08x%08x", length, crc32.getValue(),
+                adler32.getValue());
+        synchronized (this) {
+            contentKeys.put(fileKey, contentKey);
+            trimContentKeys();
+        }
+        return contentKey;
+    }
+
+    /**
+     * @return The cache key of a file content for the model and settings described by
+     * {@code prefix}.
+     */
+    static String key(String prefix, String contentKey) {
+        return prefix + "|" + contentKey;
+    }
+
+    /**
+     * @return The cached results, or null on a miss.
+     */
+    synchronized List<Map<String, Object>> get(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.results;
+    }
+
+    synchronized void put(String key, List<Map<String, Object>> results) {
+        Entry entry = new Entry(results, estimateBytes(results));
+        Entry previous = entries.put(key, entry);
+        if (previous != null) {
+            bytes -= previous.bytes;
+        }
+        bytes += entry.bytes;
+        trim();
+    }
+
+    synchronized void setLimits(int maxEntries, long maxBytes) {
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+        trim();
+        trimContentKeys();
+    }
+
+    synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("hits", hits);
+        stats.put("misses", misses);
+        stats.put("entries", entries.size());
+        stats.put("bytes", bytes);
+        stats.put("hitRate", hits + misses > 0 ? (double) hits / (hits + misses) : 0.0);
+        return stats;
+    }
+
+    synchronized void clear() {
+        entries.clear();
+        contentKeys.clear();
+        bytes = 0;
+        hits = 0;
+        misses = 0;
+    }
+
+    private void trim() {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while ((entries.size() > maxEntries || bytes > maxBytes) && iterator.hasNext()) {
+            bytes -= iterator.next().bytes;
+            iterator.remove();
+        }
+    }
+
+    private void trimContentKeys() {
+        Iterator<String> iterator = contentKeys.values().iterator();
+        while (contentKeys.size() > maxEntries && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    private static String fileKey(File file) {
+        return file.getAbsolutePath() + "|" + file.length() + "|" + file.lastModified();
+    }
+
+    private static long estimateBytes(List<Map<String, Object>> results) {
+        long size = ENTRY_BYTES;
+        for (Map<String, Object> result : results) {
+            size += OBJECT_BYTES;
+            Object mask = result.get("mask");
+            if (mask instanceof byte[]) {
+                size += ((byte[]) mask).length;
+            }
+        }
+        return size;
+    }
+
+    private static class Entry {
+        final List<Map<String, Object>> results;
+        final long bytes;
+
+        Entry(List<Map<String, Object>> results, long bytes) {
+            this.results = results;
+            this.bytes = bytes;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+// Ultralytics 🚀 AGPL-3.0 License - https://ultralytics.com/license
+
+package com.ultralytics.ultralytics_yolo;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares every frame of [x, y, width, height, confidence, index] detections with the last frame
+ * that was sent and keeps only what changed.
+ * <p>
+ * Detections are matched greedily by class and IoU. A matched detection whose box overlaps the
+ * sent one by at least {@code iouTolerance} and whose confidence moved by at most
+ * {@code confidenceTolerance} counts as unchanged, and the sent box is kept as the reference so
+ * slow drift is still reported once it adds up.
+ * <p>
+ * The first frame after a {@link #reset()} is a baseline: it carries every detection, and the
+ * receiver drops whatever it held before, since the IDs it knew are never reported as removed.
+ */
+class ResultDeltaEncoder {
+    private static final float MATCH_IOU = 0.3f;
+    private float iouTolerance = 0.9f;
+    private float confidenceTolerance = 0.05f;
+    private int nextId = 0;
+    private boolean baselinePending = true;
+    private final List<Entry> sent = new ArrayList<>();
+
+    static class Entry {
+        final int id;
+        float[] detection;
+
+        Entry(int id, float[] detection) {
+            this.id = id;
+            this.detection = detection;
+        }
+    }
+
+    static class Delta {
+        final List<Entry> added = new ArrayList<>();
+        final List<Entry> moved = new ArrayList<>();
+        final List<Integer> removed = new ArrayList<>();
+        boolean cleared = false;
+        // Replaces everything sent before, with added holding the full frame
+        boolean baseline = false;
+    }
+
+    void setTolerances(float iouTolerance, float confidenceTolerance) {
+        this.iouTolerance = iouTolerance;
+        this.confidenceTolerance = confidenceTolerance;
+    }
+
+    /**
+     * Forgets the last sent frame so the next one is sent in full, as a baseline.
+     */
+    void reset() {
+        sent.clear();
+        baselinePending = true;
+    }
+
+    /**
+     * @return The changes since the last sent frame, or null if the frame should be skipped.
+     */
+    Delta encode(float[][] detections) {
+        if (baselinePending) {
+            baselinePending = false;
+            Delta delta = new Delta();
+            delta.baseline = true;
+            for (float[] detection : detections) {
+                Entry entry = new Entry(nextId++, detection);
+                delta.added.add(entry);
+                sent.add(entry);
+            }
+            return delta;
+        }
+
+        if (detections.length == 0) {
+            if (sent.isEmpty()) {
+                return null;
+            }
+            sent.clear();
+            Delta delta = new Delta();
+            delta.cleared = true;
+            return delta;
+        }
+
+        Delta delta = new Delta();
+        boolean[] matched = new boolean[sent.size()];
+        List<Entry> current = new ArrayList<>(detections.length);
+
+        for (float[] detection : detections) {
+            int best = -1;
+            float bestIou = MATCH_IOU;
+            for (int i = 0; i < sent.size(); i++) {
+                float[] other = sent.get(i).detection;
+                if (matched[i] || other[5] != detection[5]) {
+                    continue;
+                }
+                float iou = iou(detection, other);
+                if (iou >= bestIou) {
+                    best = i;
+                    bestIou = iou;
+                }
+            }
+
+            if (best < 0) {
+                Entry entry = new Entry(nextId++, detection);
+                delta.added.add(entry);
+                current.add(entry);
+                continue;
+            }
+
+            matched[best] = true;
+            Entry entry = sent.get(best);
+            if (bestIou < iouTolerance
+                    || Math.abs(detection[4] - entry.detection[4]) > confidenceTolerance) {
+                entry.detection = detection;
+                delta.moved.add(entry);
+            }
+            current.add(entry);
+        }
+
+        for (int i = 0; i < matched.length; i++) {
+            if (!matched[i]) {
+                delta.removed.add(sent.get(i).id);
+            }
+        }
+
+        sent.clear();
+        sent.addAll(current);
+
+        if (delta.added.isEmpty() && delta.moved.isEmpty() && delta.removed.isEmpty()) {
+            return null;
+        }
+        return delta;
+    }
+
+    private static float iou(float[] a, float[] b) {
+        float left = Math.max(a[0], b[0]);
+        float top = Math.max(a[1], b[1]);
+        float right = Math.min(a[0] + a[2], b[0] + b[2]);
+        float bottom = Math.min(a[1] + a[3], b[1] + b[3]);
+        if (right <= left || bottom <= top) {
+            return 0;
+        }
+        float intersection = (right - left) * (bottom - top);
+        return intersection / (a[2] * a[3] + b[2] * b[3] - intersection);
+    }
+}
@@ -5,37 +5,214 @@ package com.ultralytics.ultralytics_yolo;
 import android.os.Handler;
 import android.os.Looper;
 
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongConsumer;
 
 import io.flutter.plugin.common.EventChannel;
 
+/**
+ * Streams prediction results to Dart.
+ * <p>
+ * Full-frame results go through a single-slot mailbox: a newer result replaces one the main
+ * thread has not delivered yet. With a maximum age set, results older than it are dropped on
+ * delivery, so the overlay never lags behind the camera by more than that age. Deltas and label tables
+ * depend on every previous event and are posted in order instead.
+ */
 class ResultStreamHandler implements EventChannel.StreamHandler {
     final private Handler handler = new Handler(Looper.getMainLooper());
+    private final AtomicReference<PendingResult> mailbox = new AtomicReference<>();
+    private final Runnable deliverRunnable = this::deliver;
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong overwritten = new AtomicLong();
+    private final AtomicLong expired = new AtomicLong();
+    private volatile long maxAgeNanos = 0; // Never expire
     private EventChannel.EventSink eventSink;
+    private Runnable listenerCallback;
+    private Map<String, Object> labelsEvent;
+    private Runnable onListenCallback;
+    private LongConsumer emitTimeCallback;
+    private volatile Runnable droppedResultCallback;
 
     @Override
     public void onListen(Object arguments, EventChannel.EventSink events) {
         eventSink = events;
+        if (onListenCallback != null) {
+            onListenCallback.run();
+        }
+
+        // Late listeners still need the label table to decode binary frames
+        if (labelsEvent != null) {
+            eventSink.success(labelsEvent);
+        }
+        if (listenerCallback != null) {
+            listenerCallback.run();
+        }
     }
 
     @Override
     public void onCancel(Object arguments) {
         eventSink = null;
+        if (listenerCallback != null) {
+            listenerCallback.run();
+        }
+    }
+
+    public boolean hasListener() {
+        return eventSink != null;
+    }
+
+    /**
+     * Called on the main thread whenever a listener subscribes or cancels.
+     */
+    public void setListenerCallback(Runnable callback) {
+        listenerCallback = callback;
     }
 
     public void sink(List<Map<String, Object>> objects) {
+        if (!objects.isEmpty()) {
+            offer(objects);
+        }
+    }
+
+    public void setOnListenCallback(Runnable callback) {
+        onListenCallback = callback;
+    }
+
+    /**
+     * Receives the nanoseconds every result took to go out through the event sink, including the
+     * codec encoding. Called on the main thread.
+     */
+    public void setEmitTimeCallback(LongConsumer callback) {
+        emitTimeCallback = callback;
+    }
+
+    /**
+     * Sends a single event, such as a delta between two frames.
+     */
+    public void sink(Map<String, Object> event) {
+        handler.post(() -> {
+            if (eventSink != null) {
+                emit(event);
+            }
+        });
+    }
+
+    /**
+     * Sends a packed binary detection frame, including frames without detections.
+     */
+    public void sink(float[] frame) {
+        offer(frame);
+    }
+
+    /**
+     * Off by default, since a slow device or a freshly swapped model could otherwise have every
+     * result expire before it is shown.
+     *
+     * @param maxAgeMs Maximum age of a delivered result, or 0 or less to never expire results.
+     */
+    public void setMaxAge(long maxAgeMs) {
+        maxAgeNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, maxAgeMs));
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("delivered", delivered.get());
+        stats.put("overwritten", overwritten.get());
+        stats.put("expired", expired.get());
+        return stats;
+    }
+
+    public void resetStats() {
+        delivered.set(0);
+        overwritten.set(0);
+        expired.set(0);
+    }
+
+    private void offer(Object event) {
+        PendingResult previous = mailbox.getAndSet(new PendingResult(event, System.nanoTime()));
+        if (previous == null) {
+            // The slot was empty, so no delivery is scheduled yet
+            handler.post(deliverRunnable);
+        } else {
+            overwritten.incrementAndGet();
+            reportDroppedResult();
+        }
+    }
+
+    private void deliver() {
+        PendingResult pending = mailbox.getAndSet(null);
+        if (pending == null) {
+            return;
+        }
+        final long maxAge = maxAgeNanos;
+        if (maxAge > 0 && System.nanoTime() - pending.timestampNanos > maxAge) {
+            expired.incrementAndGet();
+            reportDroppedResult();
+            return;
+        }
+        if (eventSink != null) {
+            emit(pending.event);
+            delivered.incrementAndGet();
+        }
+    }
+
+    /**
+     * Called for every result that never reaches Dart because it was overwritten or expired.
+     */
+    public void setDroppedResultCallback(Runnable callback) {
+        droppedResultCallback = callback;
+    }
+
+    private void emit(Object event) {
+        final long emitStart = System.nanoTime();
+        PipelineTracer.begin(PipelineTracer.EMIT);
+        eventSink.success(event);
+        PipelineTracer.end(PipelineTracer.EMIT);
+        if (emitTimeCallback != null) {
+            emitTimeCallback.accept(System.nanoTime() - emitStart);
+        }
+    }
+
+    /**
+     * Publishes the label table used to resolve class indexes of binary frames, or clears it
+     * when {@code labels} is null.
+     */
+    public void setLabels(List<String> labels) {
         handler.post(() -> {
-            if (eventSink != null && !objects.isEmpty()) {
-                eventSink.success(objects);
+            labelsEvent = labels != null ? Collections.singletonMap("labels", labels) : null;
+            if (eventSink != null && labelsEvent != null) {
+                eventSink.success(labelsEvent);
             }
         });
     }
 
+    private static class PendingResult {
+        final Object event;
+        final long timestampNanos;
+
+        PendingResult(Object event, long timestampNanos) {
+            this.event = event;
+            this.timestampNanos = timestampNanos;
+        }
+    }
+
     public void close() {
         if (eventSink != null) {
             eventSink.endOfStream();
             eventSink = null;
         }
     }
+
+    private void reportDroppedResult() {
+        final Runnable callback = droppedResultCallback;
+        if (callback != null) {
+            callback.run();
+        }
+    }
 }
@@ -0,0 +1,106 @@
+// Ultralytics 🚀 AGPL-3.0 License - https://ultralytics.com/license
+
+package com.ultralytics.ultralytics_yolo;
+
+import com.ultralytics.ultralytics_yolo.predict.Predictor;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-bucket latency histograms for every pipeline stage.
+ * <p>
+ * Durations are bucketed in microseconds on a log-linear scale: values below {@link #SUB_BUCKETS}
+ * get a bucket each, and every power of two above that is split into {@link #SUB_BUCKETS} equal
+ * buckets, which bounds the percentile error to 1/8 of the value. Recording is a single atomic
+ * increment, so stages can be recorded from any thread without locks or allocation.
+ */
+class StageLatencyHistograms {
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_EXPONENT = 36; // 2^36 us is about 19 hours
+    private static final int BUCKET_COUNT = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+    private static final double[] PERCENTILES = {0.5, 0.95, 0.99};
+    private static final String[] PERCENTILE_KEYS = {"p50", "p95", "p99"};
+
+    private final AtomicLongArray counts = new AtomicLongArray(Predictor.STAGE_COUNT * BUCKET_COUNT);
+
+    public void record(int stage, long nanos) {
+        counts.incrementAndGet(stage * BUCKET_COUNT + bucketOf(Math.max(0, nanos / 1000)));
+    }
+
+    public void reset() {
+        for (int i = 0; i < counts.length(); i++) {
+            counts.set(i, 0);
+        }
+    }
+
+    /**
+     * Returns one {count, p50, p95, p99} map per stage, indexed by {@code Predictor.STAGE_*}.
+     * Percentiles are in milliseconds.
+     */
+    public List<Map<String, Object>> getPercentiles() {
+        List<Map<String, Object>> stages = new ArrayList<>(Predictor.STAGE_COUNT);
+        long[] stageCounts = new long[BUCKET_COUNT];
+
+        for (int stage = 0; stage < Predictor.STAGE_COUNT; stage++) {
+            long total = 0;
+            for (int b = 0; b < BUCKET_COUNT; b++) {
+                stageCounts[b] = counts.get(stage * BUCKET_COUNT + b);
+                total += stageCounts[b];
+            }
+
+            Map<String, Object> percentiles = new HashMap<>();
+            percentiles.put("count", total);
+            for (int p = 0; p < PERCENTILES.length; p++) {
+                percentiles.put(PERCENTILE_KEYS[p], percentile(stageCounts, total, PERCENTILES[p]));
+            }
+            stages.add(percentiles);
+        }
+        return stages;
+    }
+
+    private static double percentile(long[] stageCounts, long total, double percentile) {
+        if (total == 0) {
+            return 0.0;
+        }
+
+        final long rank = Math.max(1, (long) Math.ceil(percentile * total));
+        long seen = 0;
+        for (int b = 0; b < BUCKET_COUNT; b++) {
+            seen += stageCounts[b];
+            if (seen >= rank) {
+                // Middle of the bucket, in milliseconds
+                return (bucketLowerBound(b) + bucketWidth(b) / 2.0) / 1000.0;
+            }
+        }
+        return bucketLowerBound(BUCKET_COUNT - 1) / 1000.0;
+    }
+
+    private static int bucketOf(long micros) {
+        if (micros < SUB_BUCKETS) {
+            return (int) micros;
+        }
+        final int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        final int subBucket = (int) (micros >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return Math.min((exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket, BUCKET_COUNT - 1);
+    }
+
+    private static long bucketLowerBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        final int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        return (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << (exponent - SUB_BUCKET_BITS);
+    }
+
+    private static long bucketWidth(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return 1;
+        }
+        return 1L << (bucket / SUB_BUCKETS - 1);
+    }
+}
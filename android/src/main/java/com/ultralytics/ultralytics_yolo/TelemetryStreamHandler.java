@@ -0,0 +1,123 @@
+// Ultralytics 🚀 AGPL-3.0 License - https://ultralytics.com/license
+
+package com.ultralytics.ultralytics_yolo;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import com.ultralytics.ultralytics_yolo.predict.Predictor;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import io.flutter.plugin.common.EventChannel;
+
+/**
+ * Aggregates per-frame pipeline metrics and publishes them as one snapshot at a fixed rate.
+ * <p>
+ * Recording only updates a few counters. Nothing is posted to the main thread unless a Dart
+ * listener is attached.
+ */
+class TelemetryStreamHandler implements EventChannel.StreamHandler {
+    private static final long DEFAULT_INTERVAL_MS = 500; // 2 Hz
+    final private Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable publishRunnable = this::publish;
+    private EventChannel.EventSink eventSink;
+    private Runnable listenerCallback;
+    private long intervalMs = DEFAULT_INTERVAL_MS;
+
+    private double inferenceTimeSum = 0;
+    private int inferenceTimeCount = 0;
+    private double fps = 0;
+    private int droppedFrames = 0;
+    private final long[] stageNanosSum = new long[Predictor.STAGE_COUNT];
+    private final int[] stageCount = new int[Predictor.STAGE_COUNT];
+
+    @Override
+    public void onListen(Object arguments, EventChannel.EventSink events) {
+        eventSink = events;
+        handler.removeCallbacks(publishRunnable);
+        handler.postDelayed(publishRunnable, intervalMs);
+        if (listenerCallback != null) {
+            listenerCallback.run();
+        }
+    }
+
+    @Override
+    public void onCancel(Object arguments) {
+        eventSink = null;
+        handler.removeCallbacks(publishRunnable);
+        if (listenerCallback != null) {
+            listenerCallback.run();
+        }
+    }
+
+    public boolean hasListener() {
+        return eventSink != null;
+    }
+
+    /**
+     * Called on the main thread whenever a listener subscribes or cancels.
+     */
+    public void setListenerCallback(Runnable callback) {
+        listenerCallback = callback;
+    }
+
+    public void setRate(double hz) {
+        intervalMs = hz > 0 ? (long) (1000 / hz) : DEFAULT_INTERVAL_MS;
+    }
+
+    public synchronized void recordInferenceTime(double inferenceTime) {
+        inferenceTimeSum += inferenceTime;
+        inferenceTimeCount++;
+    }
+
+    public synchronized void recordFps(double fps) {
+        this.fps = fps;
+    }
+
+    public synchronized void recordDroppedFrame() {
+        droppedFrames++;
+    }
+
+    public synchronized void recordStageTime(int stage, long nanos) {
+        stageNanosSum[stage] += nanos;
+        stageCount[stage]++;
+    }
+
+    private void publish() {
+        if (eventSink == null) {
+            return;
+        }
+
+        Map<String, Object> snapshot = new HashMap<>();
+        double[] stages = new double[Predictor.STAGE_COUNT];
+        synchronized (this) {
+            snapshot.put("inferenceTime", inferenceTimeCount > 0 ? inferenceTimeSum / inferenceTimeCount : 0.0);
+            snapshot.put("frames", inferenceTimeCount);
+            snapshot.put("fps", fps);
+            snapshot.put("droppedFrames", droppedFrames);
+            // Mean milliseconds per stage, indexed by Predictor.STAGE_*
+            for (int i = 0; i < stages.length; i++) {
+                stages[i] = stageCount[i] > 0 ? stageNanosSum[i] / 1e6 / stageCount[i] : 0.0;
+                stageNanosSum[i] = 0;
+                stageCount[i] = 0;
+            }
+            inferenceTimeSum = 0;
+            inferenceTimeCount = 0;
+            droppedFrames = 0;
+        }
+        snapshot.put("stages", stages);
+
+        eventSink.success(snapshot);
+        handler.postDelayed(publishRunnable, intervalMs);
+    }
+
+    public void close() {
+        handler.removeCallbacks(publishRunnable);
+        if (eventSink != null) {
+            eventSink.endOfStream();
+            eventSink = null;
+        }
+    }
+}
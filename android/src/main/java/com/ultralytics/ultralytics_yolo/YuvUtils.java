@@ -0,0 +1,78 @@
+// Ultralytics 🚀 AGPL-3.0 License - https://ultralytics.com/license
+
+package com.ultralytics.ultralytics_yolo;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Plane copying for YUV_420_888 camera frames. Works on raw plane buffers rather than
+ * {@code ImageProxy}, which lets the JVM benchmarks drive it directly.
+ */
+public class YuvUtils {
+    /**
+     * Interleaves the Y, U and V planes of a YUV_420_888 image into NV21.
+     *
+     * @param planes       Y, U and V plane buffers.
+     * @param rowStrides   Row stride of every plane in bytes.
+     * @param pixelStrides Pixel stride of every plane in bytes.
+     * @param left         Left edge of the crop rectangle in luma pixels.
+     * @param top          Top edge of the crop rectangle in luma pixels.
+     * @param width        Width of the crop rectangle in luma pixels.
+     * @param height       Height of the crop rectangle in luma pixels.
+     * @param outputBuffer Output of at least {@code width * height * 3 / 2} bytes.
+     */
+    public static void toNv21(ByteBuffer[] planes, int[] rowStrides, int[] pixelStrides,
+                              int left, int top, int width, int height, byte[] outputBuffer) {
+        final int pixelCount = width * height;
+        byte[] rowBuffer = new byte[Math.max(rowStrides[0], Math.max(rowStrides[1], rowStrides[2]))];
+
+        for (int planeIndex = 0; planeIndex < planes.length; planeIndex++) {
+            int outputStride;
+            int outputOffset;
+
+            switch (planeIndex) {
+                case 0:
+                    outputStride = 1;
+                    outputOffset = 0;
+                    break;
+                case 1:
+                    outputStride = 2;
+                    outputOffset = pixelCount + 1;
+                    break;
+                case 2:
+                    outputStride = 2;
+                    outputOffset = pixelCount;
+                    break;
+                default:
+                    return;
+            }
+
+            ByteBuffer planeBuffer = planes[planeIndex];
+            int rowStride = rowStrides[planeIndex];
+            int pixelStride = pixelStrides[planeIndex];
+
+            // Chroma planes are subsampled by two in both directions
+            int planeLeft = planeIndex == 0 ? left : left / 2;
+            int planeTop = planeIndex == 0 ? top : top / 2;
+            int planeWidth = planeIndex == 0 ? width : (left + width) / 2 - left / 2;
+            int planeHeight = planeIndex == 0 ? height : (top + height) / 2 - top / 2;
+
+            int rowLength = (pixelStride == 1 && outputStride == 1) ? planeWidth : (planeWidth - 1) * pixelStride + 1;
+
+            for (int row = 0; row < planeHeight; row++) {
+                planeBuffer.position((row + planeTop) * rowStride + planeLeft * pixelStride);
+
+                if (pixelStride == 1 && outputStride == 1) {
+                    planeBuffer.get(outputBuffer, outputOffset, rowLength);
+                    outputOffset += rowLength;
+                } else {
+                    planeBuffer.get(rowBuffer, 0, rowLength);
+                    for (int col = 0; col < planeWidth; col++) {
+                        outputBuffer[outputOffset] = rowBuffer[col * pixelStride];
+                        outputOffset += outputStride;
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,31 @@
+// Ultralytics 🚀 AGPL-3.0 License - https://ultralytics.com/license
+
+package com.ultralytics.ultralytics_yolo.predict;
+
+import android.graphics.Bitmap;
+
+import com.ultralytics.ultralytics_yolo.predict.engine.PixelSource;
+
+/**
+ * {@link PixelSource} for a bitmap. Bitmaps of another size are scaled through the pool.
+ */
+public class BitmapPixelSource implements PixelSource {
+    private final Bitmap bitmap;
+    private final BitmapPool bitmapPool;
+
+    public BitmapPixelSource(Bitmap bitmap, BitmapPool bitmapPool) {
+        this.bitmap = bitmap;
+        this.bitmapPool = bitmapPool;
+    }
+
+    @Override
+    public void readPixels(int size, int[] pixels) {
+        if (bitmap.getWidth() == size && bitmap.getHeight() == size) {
+            bitmap.getPixels(pixels, 0, size, 0, 0, size, size);
+            return;
+        }
+        Bitmap scaled = bitmapPool.scale(bitmap, size, size);
+        scaled.getPixels(pixels, 0, size, 0, 0, size, size);
+        bitmapPool.release(scaled);
+    }
+}
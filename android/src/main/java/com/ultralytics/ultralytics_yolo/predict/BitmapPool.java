@@ -0,0 +1,205 @@
+// Ultralytics 🚀 AGPL-3.0 License - https://ultralytics.com/license
+
+package com.ultralytics.ultralytics_yolo.predict;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Reusable bitmaps and pixel arrays for still-image requests.
+ * <p>
+ * Entries are matched by exact size and kept in least recently released order. Releasing past
+ * the memory cap evicts the oldest entries, and anything not released is simply left to the
+ * garbage collector, so forgetting a release only costs a miss.
+ */
+public class BitmapPool {
+    private static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+
+    private final ArrayDeque<Bitmap> bitmaps = new ArrayDeque<>();
+    private final ArrayDeque<int[]> pixelArrays = new ArrayDeque<>();
+    private final Paint scalePaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+    private long maxBytes = DEFAULT_MAX_BYTES;
+    private long bytes = 0;
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+
+    public synchronized void setMaxBytes(long maxBytes) {
+        this.maxBytes = maxBytes;
+        trim();
+    }
+
+    /**
+     * Returns a mutable ARGB_8888 bitmap of the given size. Its previous content is undefined.
+     */
+    public synchronized Bitmap acquireBitmap(int width, int height) {
+        for (Iterator<Bitmap> iterator = bitmaps.descendingIterator(); iterator.hasNext(); ) {
+            Bitmap bitmap = iterator.next();
+            if (bitmap.getWidth() == width && bitmap.getHeight() == height) {
+                iterator.remove();
+                bytes -= bitmap.getAllocationByteCount();
+                hits++;
+                return bitmap;
+            }
+        }
+        misses++;
+        return Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+    }
+
+    public synchronized void release(Bitmap bitmap) {
+        if (bitmap == null || bitmap.isRecycled() || !bitmap.isMutable() ||
+                bitmap.getConfig() != Bitmap.Config.ARGB_8888) {
+            return;
+        }
+        bitmaps.addLast(bitmap);
+        bytes += bitmap.getAllocationByteCount();
+        trim();
+    }
+
+    /**
+     * Returns a pixel array of exactly {@code length} ints. Its previous content is undefined.
+     */
+    public synchronized int[] acquirePixels(int length) {
+        for (Iterator<int[]> iterator = pixelArrays.descendingIterator(); iterator.hasNext(); ) {
+            int[] pixels = iterator.next();
+            if (pixels.length == length) {
+                iterator.remove();
+                bytes -= 4L * pixels.length;
+                hits++;
+                return pixels;
+            }
+        }
+        misses++;
+        return new int[length];
+    }
+
+    public synchronized void release(int[] pixels) {
+        pixelArrays.addLast(pixels);
+        bytes += 4L * pixels.length;
+        trim();
+    }
+
+    /**
+     * Scales {@code source} into a pooled bitmap, with the same filtering as
+     * {@link Bitmap#createScaledBitmap}.
+     */
+    public Bitmap scale(Bitmap source, int width, int height) {
+        return scale(source, new Rect(0, 0, source.getWidth(), source.getHeight()), width, height);
+    }
+
+    /**
+     * Scales the {@code region} of {@code source} into a pooled bitmap.
+     */
+    public Bitmap scale(Bitmap source, Rect region, int width, int height) {
+        Bitmap scaled = acquireBitmap(width, height);
+        Canvas canvas = new Canvas(scaled);
+        canvas.drawBitmap(source, region, new Rect(0, 0, width, height), scalePaint);
+        return scaled;
+    }
+
+    /**
+     * Decodes an image file into a pooled bitmap of the same size when one is available.
+     *
+     * @return The decoded bitmap, or null if the file cannot be decoded.
+     */
+    public Bitmap decodeFile(String path) {
+        return decodeFile(path, 0, null);
+    }
+
+    /**
+     * Decodes an image file subsampled by the largest power of two that keeps both sides at least
+     * {@code minSide} pixels. The predictors scale still images down to their input size anyway,
+     * so the pixels dropped here would be thrown away after a much slower full decode.
+     *
+     * @param originalSize Receives the full-resolution width and height, for mapping results back.
+     * @return The decoded bitmap, or null if the file cannot be decoded.
+     */
+    public Bitmap decodeFile(String path, int minSide, int[] originalSize) {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeFile(path, options);
+        final int width = options.outWidth;
+        final int height = options.outHeight;
+        if (width <= 0 || height <= 0) {
+            return null;
+        }
+        if (originalSize != null) {
+            originalSize[0] = width;
+            originalSize[1] = height;
+        }
+
+        int sampleSize = 1;
+        if (minSide > 0) {
+            while (Math.min(width, height) / (sampleSize * 2) >= minSide) {
+                sampleSize *= 2;
+            }
+        }
+        // Decoders round subsampled sizes differently, rounding up keeps the reused bitmap large enough
+        return decodeFile(path, (width + sampleSize - 1) / sampleSize, (height + sampleSize - 1) / sampleSize,
+                sampleSize);
+    }
+
+    /**
+     * Decodes an image file whose decoded size is already known, e.g. after a bounds pass.
+     */
+    public Bitmap decodeFile(String path, int decodedWidth, int decodedHeight, int sampleSize) {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inSampleSize = sampleSize;
+        options.inMutable = true;
+        options.inPreferredConfig = Bitmap.Config.ARGB_8888;
+        options.inBitmap = acquireBitmap(decodedWidth, decodedHeight);
+        try {
+            Bitmap bitmap = BitmapFactory.decodeFile(path, options);
+            if (bitmap == null) {
+                release(options.inBitmap);
+            }
+            return bitmap;
+        } catch (IllegalArgumentException e) {
+            // The decoder cannot reuse this bitmap, e.g. for some image formats
+            release(options.inBitmap);
+            options.inBitmap = null;
+            return BitmapFactory.decodeFile(path, options);
+        }
+    }
+
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("hits", hits);
+        stats.put("misses", misses);
+        stats.put("evictions", evictions);
+        stats.put("bytes", bytes);
+        stats.put("maxBytes", maxBytes);
+        return stats;
+    }
+
+    public synchronized void clear() {
+        for (Bitmap bitmap : bitmaps) {
+            bitmap.recycle();
+        }
+        bitmaps.clear();
+        pixelArrays.clear();
+        bytes = 0;
+    }
+
+    private void trim() {
+        while (bytes > maxBytes && !(bitmaps.isEmpty() && pixelArrays.isEmpty())) {
+            // Pixel arrays are cheap to recreate, so they go first
+            if (!pixelArrays.isEmpty()) {
+                bytes -= 4L * pixelArrays.removeFirst().length;
+            } else {
+                Bitmap bitmap = bitmaps.removeFirst();
+                bytes -= bitmap.getAllocationByteCount();
+                bitmap.recycle();
+            }
+            evictions++;
+        }
+    }
+}
@@ -10,6 +10,7 @@ import androidx.annotation.Keep;
 import androidx.camera.core.ImageProxy;
 
 import com.ultralytics.ultralytics_yolo.models.YoloModel;
+import com.ultralytics.ultralytics_yolo.predict.engine.StageRecorder;
 
 import org.yaml.snakeyaml.Yaml;
 
@@ -22,8 +23,22 @@ import java.util.List;
 import java.util.Map;
 
 public abstract class Predictor {
-public static  int INPUT_SIZE = 320;
+    public static final int DEFAULT_INPUT_SIZE = 320;
+    // Pipeline stages reported through the stage time callback
+    public static final int STAGE_CONVERT = 0; // YUV camera frame to bitmap conversion
+    public static final int STAGE_PREPROCESS = 1; // Rotation and scaling into the input bitmap
+    public static final int STAGE_SET_INPUT = StageRecorder.STAGE_SET_INPUT; // Pixel normalization into the input tensor
+    public static final int STAGE_INFERENCE = StageRecorder.STAGE_INFERENCE; // Interpreter invocation
+    public static final int STAGE_POSTPROCESS = StageRecorder.STAGE_POSTPROCESS; // Output decoding and NMS
+    public static final int STAGE_EMIT = 5; // Delivery through the event sink, including codec encoding
+    public static final int STAGE_COUNT = 6;
         protected final Context context;
+    protected int stride = 32;
+    // Square model input size from the metadata imgsz, fixed once the model is loaded
+    protected int inputSize = DEFAULT_INPUT_SIZE;
+    protected BitmapPool bitmapPool = new BitmapPool();
+    private StageTimeCallback stageTimeCallback;
+    private Runnable droppedFrameCallback;
     public final ArrayList<String> labels = new ArrayList<>();
 
     static {
@@ -55,16 +70,28 @@ public static  int INPUT_SIZE = 320;
         List<Integer> imgszArray = (List<Integer>) data.get("imgsz");    
         if(imgszArray!=null&&imgszArray.size()==2){
             
-            INPUT_SIZE = imgszArray.get(0)>=imgszArray.get(1)?imgszArray.get(0):imgszArray.get(1);
-            System.out.println("INPUT_SIZE:"+ INPUT_SIZE);
+            inputSize = imgszArray.get(0)>=imgszArray.get(1)?imgszArray.get(0):imgszArray.get(1);
+            System.out.println("INPUT_SIZE:"+ inputSize);
         }  
 
+        Object strideObject = data.get("stride");
+        if (strideObject instanceof Integer) {
+            stride = (Integer) strideObject;
+        }
+
         labels.clear();
         labels.addAll(names.values());
 
         inputStream.close();
     }
 
+    /**
+     * @return The input size of the loaded model, before any adaptive resizing.
+     */
+    public int getModelInputSize() {
+        return inputSize;
+    }
+
     public abstract Object predict(Bitmap bitmap);
 
     public abstract void predict(ImageProxy imageProxy, boolean isMirrored);
@@ -75,8 +102,70 @@ public static  int INPUT_SIZE = 320;
 
     public abstract void setFpsRateCallback(FloatResultCallback callback);
 
+    /**
+     * Runs one inference on a blank image, so that the first real frame does not pay for tensor
+     * allocation and delegate setup. Call it after {@link #loadModel}, on any thread, before the
+     * predictor is used elsewhere.
+     */
+    public void warmUp() {
+        Bitmap blank = bitmapPool.acquireBitmap(inputSize, inputSize);
+        blank.eraseColor(0);
+        predict(blank);
+        bitmapPool.release(blank);
+    }
+
+    /**
+     * Releases the model. Frames and images passed in afterwards get no results.
+     */
+    public void close() {
+    }
+
+    /**
+     * Frees the buffers used for camera frames. They are recreated on the next frame, and the
+     * interpreter stays loaded.
+     */
+    public void releaseFrameBuffers() {
+    }
+
+    /**
+     * Shares one pool of still-image bitmaps and pixel arrays between predictors.
+     */
+    public void setBitmapPool(BitmapPool bitmapPool) {
+        this.bitmapPool = bitmapPool;
+    }
+
+    public void setStageTimeCallback(StageTimeCallback callback) {
+        stageTimeCallback = callback;
+    }
+
+    public void setDroppedFrameCallback(Runnable callback) {
+        droppedFrameCallback = callback;
+    }
+
+    /**
+     * Reports the time spent in {@code stage} since {@code startNanos} ({@link System#nanoTime()}).
+     */
+    protected void recordStage(int stage, long startNanos) {
+        StageTimeCallback callback = stageTimeCallback;
+        if (callback != null) {
+            callback.onResult(stage, System.nanoTime() - startNanos);
+        }
+    }
+
+    protected void recordDroppedFrame() {
+        Runnable callback = droppedFrameCallback;
+        if (callback != null) {
+            callback.run();
+        }
+    }
+
     public interface FloatResultCallback {
         @Keep()
         void onResult(float result);
     }
+
+    public interface StageTimeCallback {
+        @Keep()
+        void onResult(int stage, long nanos);
+    }
 }
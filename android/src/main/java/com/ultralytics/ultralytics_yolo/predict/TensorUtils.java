@@ -0,0 +1,59 @@
+// Ultralytics 🚀 AGPL-3.0 License - https://ultralytics.com/license
+
+package com.ultralytics.ultralytics_yolo.predict;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+
+/**
+ * Tensor packing and unpacking shared by the predictors. Kept free of Android dependencies so it
+ * can also be benchmarked on a plain JVM.
+ */
+public class TensorUtils {
+    /**
+     * Writes ARGB pixels as RGB floats in [0, 1] at the current position of {@code imgData}.
+     */
+    public static void normalizePixels(int[] pixels, int pixelCount, ByteBuffer imgData) {
+        for (int i = 0; i < pixelCount; ++i) {
+            int pixelValue = pixels[i];
+            float r = (((pixelValue >> 16) & 0xFF)) / 255.0f;
+            float g = (((pixelValue >> 8) & 0xFF)) / 255.0f;
+            float b = ((pixelValue & 0xFF)) / 255.0f;
+            imgData.putFloat(r);
+            imgData.putFloat(g);
+            imgData.putFloat(b);
+        }
+    }
+
+    /**
+     * Copies a row-major float tensor from the start of {@code byteBuffer} into {@code output}.
+     */
+    public static void readOutput(ByteBuffer byteBuffer, float[][] output) {
+        byteBuffer.rewind();
+        FloatBuffer floatBuffer = byteBuffer.asFloatBuffer();
+        for (float[] row : output) {
+            floatBuffer.get(row);
+        }
+    }
+
+    /**
+     * Returns the indexes of {@code scores} ordered by descending score. Ties keep index order.
+     */
+    public static int[] rankByScore(float[] scores) {
+        // Sort (score, index) pairs packed into longs to avoid boxing
+        long[] keys = new long[scores.length];
+        for (int i = 0; i < scores.length; i++) {
+            int bits = Float.floatToIntBits(scores[i]);
+            int sortable = bits ^ ((bits >> 31) & 0x7FFFFFFF);
+            keys[i] = ((long) ~sortable << 32) | i;
+        }
+        Arrays.sort(keys);
+
+        int[] order = new int[scores.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = (int) keys[i];
+        }
+        return order;
+    }
+}
@@ -0,0 +1,189 @@
+// Ultralytics 🚀 AGPL-3.0 License - https://ultralytics.com/license
+
+package com.ultralytics.ultralytics_yolo.predict;
+
+import android.content.res.AssetFileDescriptor;
+import android.content.res.AssetManager;
+
+import com.ultralytics.ultralytics_yolo.predict.engine.TensorRunner;
+
+import org.tensorflow.lite.Interpreter;
+import org.tensorflow.lite.gpu.CompatibilityList;
+import org.tensorflow.lite.gpu.GpuDelegate;
+import org.tensorflow.lite.gpu.GpuDelegateFactory;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * {@link TensorRunner} backed by the TFLite interpreter, on the GPU delegate when the device
+ * supports it.
+ * <p>
+ * The interpreter is created on a thread of its own. The GPU delegate must run on the thread that
+ * created it, so with the delegate every call is handed to that thread, which lets a model be
+ * loaded in the background and then run from the main thread. CPU interpreters are called
+ * directly.
+ */
+public class TfliteRunner implements TensorRunner {
+    private final ExecutorService interpreterThread =
+            Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "ultralytics-interpreter"));
+    private final Object[] inputArray = new Object[1];
+    private final Map<Integer, Object> outputMap = new HashMap<>();
+    private Interpreter interpreter;
+    private GpuDelegate gpuDelegate;
+
+    private TfliteRunner() {
+    }
+
+    /**
+     * @param modelPath A Flutter asset path or an absolute path.
+     */
+    public static TfliteRunner load(AssetManager assetManager, String modelPath, boolean useGpu) throws IOException {
+        final MappedByteBuffer modelFile = loadModelFile(assetManager, modelPath);
+        final TfliteRunner runner = new TfliteRunner();
+        try {
+            runner.interpreterThread.submit(() -> runner.createInterpreter(modelFile, useGpu)).get();
+        } catch (ExecutionException | InterruptedException e) {
+            runner.interpreterThread.shutdown();
+            throw new IOException("Cannot create the interpreter", e);
+        }
+        return runner;
+    }
+
+    private static MappedByteBuffer loadModelFile(AssetManager assetManager, String modelPath) throws IOException {
+        // Local model from Flutter project
+        if (modelPath.startsWith("flutter_assets")) {
+            AssetFileDescriptor fileDescriptor = assetManager.openFd(modelPath);
+            FileInputStream inputStream = new FileInputStream(fileDescriptor.getFileDescriptor());
+            FileChannel fileChannel = inputStream.getChannel();
+            long startOffset = fileDescriptor.getStartOffset();
+            long declaredLength = fileDescriptor.getDeclaredLength();
+            return fileChannel.map(FileChannel.MapMode.READ_ONLY, startOffset, declaredLength);
+        }
+        // Absolute path
+        else {
+            FileInputStream inputStream = new FileInputStream(modelPath);
+            FileChannel fileChannel = inputStream.getChannel();
+            long declaredLength = fileChannel.size();
+            return fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, declaredLength);
+        }
+    }
+
+    private Void createInterpreter(MappedByteBuffer buffer, boolean useGpu) {
+        Interpreter.Options interpreterOptions = new Interpreter.Options();
+        try {
+            // Check if GPU support is available
+            CompatibilityList compatibilityList = new CompatibilityList();
+            if (useGpu && compatibilityList.isDelegateSupportedOnThisDevice()) {
+                GpuDelegateFactory.Options delegateOptions = compatibilityList.getBestOptionsForThisDevice();
+                gpuDelegate = new GpuDelegate(delegateOptions.setQuantizedModelsAllowed(true));
+                interpreterOptions.addDelegate(gpuDelegate);
+            } else {
+                interpreterOptions.setNumThreads(4);
+            }
+            // Create the interpreter
+            interpreter = new Interpreter(buffer, interpreterOptions);
+        } catch (Exception e) {
+            if (gpuDelegate != null) {
+                gpuDelegate.close();
+                gpuDelegate = null;
+            }
+            interpreterOptions = new Interpreter.Options();
+            interpreterOptions.setNumThreads(4);
+            // Create the interpreter
+            interpreter = new Interpreter(buffer, interpreterOptions);
+        }
+        return null;
+    }
+
+    /**
+     * Runs {@code task} on the interpreter thread if the GPU delegate is bound to it.
+     */
+    private <T> T call(Callable<T> task) {
+        try {
+            if (gpuDelegate == null) {
+                return task.call();
+            }
+            return interpreterThread.submit(task).get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof RuntimeException ? (RuntimeException) cause : new IllegalStateException(cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public int[] getInputShapeSignature() {
+        return call(() -> interpreter.getInputTensor(0).shapeSignature());
+    }
+
+    @Override
+    public int[] getInputShape() {
+        return call(() -> interpreter.getInputTensor(0).shape());
+    }
+
+    @Override
+    public void resizeInput(int[] shape) {
+        call(() -> {
+            interpreter.resizeInput(0, shape);
+            interpreter.allocateTensors();
+            return null;
+        });
+    }
+
+    @Override
+    public int getOutputCount() {
+        return call(() -> interpreter.getOutputTensorCount());
+    }
+
+    @Override
+    public int[] getOutputShape(int index) {
+        return call(() -> interpreter.getOutputTensor(index).shape());
+    }
+
+    @Override
+    public int getOutputBytes(int index) {
+        return call(() -> interpreter.getOutputTensor(index).numBytes());
+    }
+
+    @Override
+    public void run(ByteBuffer input, ByteBuffer[] outputs) {
+        inputArray[0] = input;
+        outputMap.clear();
+        for (int i = 0; i < outputs.length; i++) {
+            outputs[i].rewind();
+            outputMap.put(i, outputs[i]);
+        }
+        call(() -> {
+            interpreter.runForMultipleInputsOutputs(inputArray, outputMap);
+            return null;
+        });
+    }
+
+    @Override
+    public void close() {
+        call(() -> {
+            interpreter.close();
+            if (gpuDelegate != null) {
+                gpuDelegate.close();
+            }
+            return null;
+        });
+        interpreterThread.shutdown();
+    }
+}
@@ -0,0 +1,102 @@
+// Ultralytics 🚀 AGPL-3.0 License - https://ultralytics.com/license
+
+package com.ultralytics.ultralytics_yolo.predict.detect;
+
+import java.util.Arrays;
+
+/**
+ * Picks the model input size from a ladder of precomputed resolutions so that the measured
+ * inference time stays close to a latency target.
+ * <p>
+ * Switching is damped in two ways so the detector does not flap between sizes: the inference
+ * time is smoothed with an exponential moving average, and a switch only happens after the
+ * average has stayed outside the hysteresis band for {@link #PATIENCE_FRAMES} consecutive frames.
+ * Stepping up additionally requires the cost predicted for the larger size (scaled by pixel
+ * count) to fit under the target.
+ */
+public class AdaptiveInputSize {
+    private static final float EMA_ALPHA = 0.2f;
+    private static final float STEP_DOWN_RATIO = 1.1f; // Average above 110% of the target
+    private static final float STEP_UP_RATIO = 0.9f; // Predicted time below 90% of the target
+    private static final int PATIENCE_FRAMES = 8;
+
+    private final int[] sizes;
+    private final float targetMs;
+    private int level = 0;
+    private float averageMs = -1;
+    private int overBudgetFrames = 0;
+    private int underBudgetFrames = 0;
+
+    /**
+     * @param sizes    Input sizes in pixels. The largest size is used first.
+     * @param targetMs Latency target per frame in milliseconds.
+     */
+    public AdaptiveInputSize(int[] sizes, float targetMs) {
+        this.sizes = sizes.clone();
+        this.targetMs = targetMs;
+
+        // Sort from largest to smallest
+        Arrays.sort(this.sizes);
+        for (int i = 0, j = this.sizes.length - 1; i < j; i++, j--) {
+            int size = this.sizes[i];
+            this.sizes[i] = this.sizes[j];
+            this.sizes[j] = size;
+        }
+    }
+
+    /**
+     * Builds the default ladder for a model exported at {@code imgsz}: full, three quarters and
+     * half resolution, each rounded down to a multiple of the model stride.
+     */
+    public static int[] defaultSizes(int imgsz, int stride) {
+        int threeQuarters = Math.max(stride, (imgsz * 3 / 4) / stride * stride);
+        int half = Math.max(stride, (imgsz / 2) / stride * stride);
+        if (half == threeQuarters) {
+            return threeQuarters == imgsz ? new int[]{imgsz} : new int[]{imgsz, threeQuarters};
+        }
+        return new int[]{imgsz, threeQuarters, half};
+    }
+
+    public int getInputSize() {
+        return sizes[level];
+    }
+
+    /**
+     * Records the inference time of the last frame.
+     *
+     * @return True if the input size changed and the interpreter must be resized.
+     */
+    public boolean update(float inferenceTimeMs) {
+        averageMs = averageMs < 0 ? inferenceTimeMs : averageMs + EMA_ALPHA * (inferenceTimeMs - averageMs);
+
+        if (averageMs > targetMs * STEP_DOWN_RATIO && level < sizes.length - 1) {
+            underBudgetFrames = 0;
+            if (++overBudgetFrames >= PATIENCE_FRAMES) {
+                return switchTo(level + 1);
+            }
+        } else if (level > 0 && averageMs * areaRatio(level - 1, level) < targetMs * STEP_UP_RATIO) {
+            overBudgetFrames = 0;
+            if (++underBudgetFrames >= PATIENCE_FRAMES) {
+                return switchTo(level - 1);
+            }
+        } else {
+            overBudgetFrames = 0;
+            underBudgetFrames = 0;
+        }
+        return false;
+    }
+
+    private boolean switchTo(int newLevel) {
+        // Carry the average over to the new size so the next decision starts from an estimate
+        averageMs *= areaRatio(newLevel, level);
+        level = newLevel;
+        overBudgetFrames = 0;
+        underBudgetFrames = 0;
+        return true;
+    }
+
+    private float areaRatio(int to, int from) {
+        float ratio = (float) sizes[to] / sizes[from];
+        return ratio * ratio;
+    }
+}
@@ -3,22 +3,83 @@
 package com.ultralytics.ultralytics_yolo.predict.detect;
 
 import android.content.Context;
+import android.graphics.Bitmap;
 
 import androidx.annotation.Keep;
 
 import com.ultralytics.ultralytics_yolo.predict.Predictor;
 
+import java.util.List;
+
 public abstract class Detector extends Predictor {
     protected Detector(Context context) {
         super(context);
     }
 
+    /**
+     * Runs detection on several still images, packing up to {@link #getMaxBatchSize()} of them into
+     * each interpreter invocation.
+     *
+     * @return One array of [x, y, width, height, confidence, index] detections per image.
+     */
+    public abstract float[][][] predict(List<Bitmap> bitmaps);
+
+    public abstract int getMaxBatchSize();
+
+    /**
+     * Runs detection on overlapping square tiles of a large still image, plus the whole image for
+     * objects larger than a tile, and merges the results with a global NMS pass. Small objects
+     * keep their detail instead of shrinking away when the whole image is scaled to the input size.
+     *
+     * @param tileSize Tile side in image pixels.
+     * @param overlap  Share of the tile size shared with each neighbouring tile, in [0, 1).
+     * @return [x, y, width, height, confidence, index] detections normalized to the whole image.
+     */
+    public abstract float[][] predictTiled(Bitmap bitmap, int tileSize, float overlap);
+
     public abstract void setObjectDetectionResultCallback(ObjectDetectionResultCallback callback);
 
     public abstract void setIouThreshold(float iou);
 
     public abstract void setNumItemsThreshold(int numItems);
 
+    /**
+     * Only scores the given classes. Other classes are never considered, so a box whose best
+     * class is filtered out can still be reported as its best listed class.
+     *
+     * @param classes Class indices, or null for every class.
+     */
+    public abstract void setClassFilter(int[] classes);
+
+    /**
+     * Only keeps detections whose box center lies inside one of the zones. The test runs before
+     * NMS, so detections outside cannot suppress those inside.
+     *
+     * @param zones Polygons [x0, y0, x1, y1, ...] normalized to the image, or null for the whole
+     *              image.
+     */
+    public abstract void setZones(float[][] zones);
+
+    /**
+     * Enables adaptive input resolution. The detector steps through {@code inputSizes} (largest
+     * first) to keep the inference time around {@code targetMs}. A non-positive target disables it.
+     *
+     * @return False if the loaded model has a fixed input shape and cannot be resized.
+     */
+    public abstract boolean setLatencyTarget(float targetMs, int[] inputSizes);
+
+    public abstract int getInputSize();
+
+    /**
+     * Enables on-device tracking of live frames. The model only runs every
+     * {@code detectionInterval} frames, or sooner once a track decays below
+     * {@code minTrackConfidence}; the frames in between advance the tracks without inference.
+     * Tracked detections are extended with a track ID.
+     *
+     * @return False if the task does not support tracking.
+     */
+    public abstract boolean setTracking(boolean enabled, int detectionInterval, float minTrackConfidence);
+
     public interface ObjectDetectionResultCallback {
         @Keep()
         void onResult(float[][] detections);
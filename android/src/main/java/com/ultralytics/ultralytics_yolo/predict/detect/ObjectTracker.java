@@ -0,0 +1,306 @@
+// Ultralytics 🚀 AGPL-3.0 License - https://ultralytics.com/license
+
+package com.ultralytics.ultralytics_yolo.predict.detect;
+
+import java.util.Arrays;
+
+/**
+ * Lightweight multi-object tracker that keeps persistent IDs and smooth boxes between detector
+ * runs.
+ * <p>
+ * Every track carries a constant-velocity Kalman filter over its box center and size. With
+ * diagonal process and measurement noise the filter splits into four independent
+ * position/velocity pairs, so each coordinate only needs a 2x2 covariance. Detections are
+ * associated ByteTrack-style: high-confidence detections are matched to tracks first, then the
+ * remaining tracks get a chance to match low-confidence detections. All state lives in
+ * preallocated primitive arrays.
+ * <p>
+ * Input and output rows use the detector layout [x, y, width, height, confidence, index], with
+ * output rows extended by the track ID.
+ */
+public class ObjectTracker {
+    private static final int MAX_TRACKS = 64;
+    private static final int MAX_DETECTIONS = 128;
+    private static final int DIMS = 4; // cx, cy, w, h
+    private static final float HIGH_CONFIDENCE = 0.5f;
+    private static final float MATCH_IOU = 0.3f;
+    private static final int MAX_LOST_FRAMES = 30;
+    private static final int MIN_HITS = 2; // Detections before a new track is reported
+    private static final float CONFIDENCE_DECAY = 0.95f; // Per frame without a matching detection
+    private static final float PROCESS_NOISE_POSITION = 1e-4f;
+    private static final float PROCESS_NOISE_VELOCITY = 1e-5f;
+    private static final float MEASUREMENT_NOISE = 1e-3f;
+    private static final float INITIAL_VELOCITY_VARIANCE = 1e-2f;
+
+    // Track state, slot t uses [t * DIMS, (t + 1) * DIMS)
+    private final float[] position = new float[MAX_TRACKS * DIMS];
+    private final float[] velocity = new float[MAX_TRACKS * DIMS];
+    // Covariance of every (position, velocity) pair: p00, p01, p11
+    private final float[] covariance = new float[MAX_TRACKS * DIMS * 3];
+    private final boolean[] active = new boolean[MAX_TRACKS];
+    private final int[] trackIds = new int[MAX_TRACKS];
+    private final int[] classIndex = new int[MAX_TRACKS];
+    private final float[] confidence = new float[MAX_TRACKS];
+    private final float[] matchConfidence = new float[MAX_TRACKS]; // Confidence at the last match
+    private final int[] hits = new int[MAX_TRACKS];
+    private final int[] lostFrames = new int[MAX_TRACKS]; // Detector runs without a match
+    private final int[] framesSinceMatch = new int[MAX_TRACKS]; // Frames, with or without the detector
+
+    // Association scratch space
+    private final float[] iouMatrix = new float[MAX_TRACKS * MAX_DETECTIONS];
+    private final boolean[] trackMatched = new boolean[MAX_TRACKS];
+    private final boolean[] detectionMatched = new boolean[MAX_DETECTIONS];
+    private final float[] box = new float[4];
+
+    private int nextTrackId = 1;
+    private int detectionInterval = 3;
+    private float minTrackConfidence = 0.35f;
+    private int framesSinceDetection = Integer.MAX_VALUE;
+
+    /**
+     * @param detectionInterval  Run the detector at least every this many frames.
+     * @param minTrackConfidence Run the detector early once a reported track decays below this.
+     *                           Tracks last detected below it only wait for the interval.
+     */
+    public void configure(int detectionInterval, float minTrackConfidence) {
+        this.detectionInterval = Math.max(1, detectionInterval);
+        this.minTrackConfidence = minTrackConfidence;
+    }
+
+    public void reset() {
+        Arrays.fill(active, false);
+        framesSinceDetection = Integer.MAX_VALUE;
+    }
+
+    /**
+     * Whether the next frame should run the detector instead of only predicting the tracks.
+     */
+    public boolean needsDetection() {
+        if (framesSinceDetection >= detectionInterval) {
+            return true;
+        }
+        for (int t = 0; t < MAX_TRACKS; t++) {
+            // Only the decay since the last match counts, a steady low-confidence object does not
+            if (active[t] && lostFrames[t] == 0 && matchConfidence[t] >= minTrackConfidence &&
+                    confidence[t] < minTrackConfidence) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Advances all tracks by one frame without detections.
+     */
+    public float[][] predict() {
+        framesSinceDetection++;
+        for (int t = 0; t < MAX_TRACKS; t++) {
+            if (active[t]) {
+                predictTrack(t);
+                confidence[t] *= CONFIDENCE_DECAY;
+                framesSinceMatch[t]++;
+            }
+        }
+        return collect();
+    }
+
+    /**
+     * Advances all tracks by one frame and corrects them with the detector output.
+     */
+    public float[][] update(float[][] detections) {
+        framesSinceDetection = 0;
+        final int count = Math.min(detections.length, MAX_DETECTIONS);
+
+        for (int t = 0; t < MAX_TRACKS; t++) {
+            trackMatched[t] = false;
+            if (active[t]) {
+                predictTrack(t);
+            }
+        }
+        Arrays.fill(detectionMatched, 0, count, false);
+
+        // IoU between every predicted track and detection of the same class
+        for (int t = 0; t < MAX_TRACKS; t++) {
+            for (int d = 0; d < count; d++) {
+                iouMatrix[t * MAX_DETECTIONS + d] = active[t] && classIndex[t] == (int) detections[d][5] ?
+                        iou(t, detections[d]) : 0;
+            }
+        }
+
+        associate(detections, count, true);
+        associate(detections, count, false);
+
+        for (int t = 0; t < MAX_TRACKS; t++) {
+            if (active[t] && !trackMatched[t]) {
+                confidence[t] *= CONFIDENCE_DECAY;
+                framesSinceMatch[t]++;
+                if (++lostFrames[t] > MAX_LOST_FRAMES) {
+                    active[t] = false;
+                }
+            }
+        }
+
+        // Only confident detections start new tracks
+        for (int d = 0; d < count; d++) {
+            if (!detectionMatched[d] && detections[d][4] >= HIGH_CONFIDENCE) {
+                startTrack(detections[d]);
+            }
+        }
+
+        return collect();
+    }
+
+    /**
+     * Greedily matches the highest IoU pairs first.
+     *
+     * @param highConfidence Match detections at or above {@link #HIGH_CONFIDENCE}, or below it.
+     */
+    private void associate(float[][] detections, int count, boolean highConfidence) {
+        while (true) {
+            int bestTrack = -1;
+            int bestDetection = -1;
+            float bestIou = MATCH_IOU;
+            for (int t = 0; t < MAX_TRACKS; t++) {
+                if (!active[t] || trackMatched[t]) continue;
+                for (int d = 0; d < count; d++) {
+                    if (detectionMatched[d] || (detections[d][4] >= HIGH_CONFIDENCE) != highConfidence) continue;
+                    float value = iouMatrix[t * MAX_DETECTIONS + d];
+                    if (value >= bestIou) {
+                        bestIou = value;
+                        bestTrack = t;
+                        bestDetection = d;
+                    }
+                }
+            }
+            if (bestTrack < 0) {
+                return;
+            }
+
+            trackMatched[bestTrack] = true;
+            detectionMatched[bestDetection] = true;
+            correctTrack(bestTrack, detections[bestDetection]);
+        }
+    }
+
+    private void predictTrack(int t) {
+        for (int i = 0; i < DIMS; i++) {
+            int s = t * DIMS + i;
+            int c = s * 3;
+            position[s] += velocity[s];
+
+            // P = F P F^T + Q with F = [[1, 1], [0, 1]]
+            float p00 = covariance[c], p01 = covariance[c + 1], p11 = covariance[c + 2];
+            covariance[c] = p00 + 2 * p01 + p11 + PROCESS_NOISE_POSITION;
+            covariance[c + 1] = p01 + p11;
+            covariance[c + 2] = p11 + PROCESS_NOISE_VELOCITY;
+        }
+        // Keep the size from collapsing when the velocity overshoots
+        position[t * DIMS + 2] = Math.max(position[t * DIMS + 2], 1e-3f);
+        position[t * DIMS + 3] = Math.max(position[t * DIMS + 3], 1e-3f);
+    }
+
+    private void correctTrack(int t, float[] detection) {
+        toCenter(detection);
+        for (int i = 0; i < DIMS; i++) {
+            int s = t * DIMS + i;
+            int c = s * 3;
+            float p00 = covariance[c], p01 = covariance[c + 1], p11 = covariance[c + 2];
+
+            // K = P H^T / (H P H^T + R) with H = [1, 0]
+            float innovation = box[i] - position[s];
+            float denominator = p00 + MEASUREMENT_NOISE;
+            float k0 = p00 / denominator;
+            float k1 = p01 / denominator;
+
+            position[s] += k0 * innovation;
+            velocity[s] += k1 * innovation;
+            covariance[c] = (1 - k0) * p00;
+            covariance[c + 1] = (1 - k0) * p01;
+            covariance[c + 2] = p11 - k1 * p01;
+        }
+        confidence[t] = detection[4];
+        matchConfidence[t] = detection[4];
+        hits[t]++;
+        lostFrames[t] = 0;
+        framesSinceMatch[t] = 0;
+    }
+
+    private void startTrack(float[] detection) {
+        int t = 0;
+        while (t < MAX_TRACKS && active[t]) t++;
+        if (t == MAX_TRACKS) {
+            return;
+        }
+
+        toCenter(detection);
+        for (int i = 0; i < DIMS; i++) {
+            int s = t * DIMS + i;
+            int c = s * 3;
+            position[s] = box[i];
+            velocity[s] = 0;
+            covariance[c] = MEASUREMENT_NOISE;
+            covariance[c + 1] = 0;
+            covariance[c + 2] = INITIAL_VELOCITY_VARIANCE;
+        }
+        active[t] = true;
+        trackIds[t] = nextTrackId++;
+        classIndex[t] = (int) detection[5];
+        confidence[t] = detection[4];
+        matchConfidence[t] = detection[4];
+        hits[t] = 1;
+        lostFrames[t] = 0;
+        framesSinceMatch[t] = 0;
+    }
+
+    /**
+     * Returns confirmed tracks that were seen recently, as [x, y, width, height, confidence,
+     * index, trackId] rows clamped to the frame.
+     */
+    private float[][] collect() {
+        int count = 0;
+        for (int t = 0; t < MAX_TRACKS; t++) {
+            if (isReported(t)) count++;
+        }
+
+        float[][] tracks = new float[count][];
+        int n = 0;
+        for (int t = 0; t < MAX_TRACKS; t++) {
+            if (!isReported(t)) continue;
+            int s = t * DIMS;
+            float x0 = Math.max(0.f, position[s] - position[s + 2] / 2);
+            float y0 = Math.max(0.f, position[s + 1] - position[s + 3] / 2);
+            float x1 = Math.min(1.f, position[s] + position[s + 2] / 2);
+            float y1 = Math.min(1.f, position[s + 1] + position[s + 3] / 2);
+            tracks[n++] = new float[]{x0, y0, x1 - x0, y1 - y0, confidence[t], classIndex[t], trackIds[t]};
+        }
+        return tracks;
+    }
+
+    /**
+     * A track that stops matching is reported for one detection interval of frames, whether those
+     * frames ran the detector or not.
+     */
+    private boolean isReported(int t) {
+        return active[t] && hits[t] >= MIN_HITS && framesSinceMatch[t] <= detectionInterval;
+    }
+
+    private void toCenter(float[] detection) {
+        box[0] = detection[0] + detection[2] / 2;
+        box[1] = detection[1] + detection[3] / 2;
+        box[2] = detection[2];
+        box[3] = detection[3];
+    }
+
+    private float iou(int t, float[] detection) {
+        int s = t * DIMS;
+        float left = Math.max(position[s] - position[s + 2] / 2, detection[0]);
+        float top = Math.max(position[s + 1] - position[s + 3] / 2, detection[1]);
+        float right = Math.min(position[s] + position[s + 2] / 2, detection[0] + detection[2]);
+        float bottom = Math.min(position[s + 1] + position[s + 3] / 2, detection[1] + detection[3]);
+        if (right <= left || bottom <= top) {
+            return 0;
+        }
+        float intersection = (right - left) * (bottom - top);
+        return intersection / (position[s + 2] * position[s + 3] + detection[2] * detection[3] - intersection);
+    }
+}
@@ -2,14 +2,13 @@
 
 package com.ultralytics.ultralytics_yolo.predict.detect;
 
-import static com.ultralytics.ultralytics_yolo.CameraPreview.CAMERA_PREVIEW_SIZE;
 
 import android.content.Context;
-import android.content.res.AssetFileDescriptor;
 import android.content.res.AssetManager;
 import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Matrix;
+import android.graphics.Rect;
 import android.os.Handler;
 import android.os.Looper;
 
@@ -18,23 +17,19 @@ import androidx.camera.core.ImageProxy;
 import com.ultralytics.ultralytics_yolo.ImageUtils;
 import com.ultralytics.ultralytics_yolo.models.LocalYoloModel;
 import com.ultralytics.ultralytics_yolo.models.YoloModel;
+import com.ultralytics.ultralytics_yolo.predict.BitmapPixelSource;
 import com.ultralytics.ultralytics_yolo.predict.PredictorException;
+import com.ultralytics.ultralytics_yolo.predict.TfliteRunner;
+import com.ultralytics.ultralytics_yolo.predict.engine.DetectionEngine;
+import com.ultralytics.ultralytics_yolo.predict.engine.Zones;
 
-import org.tensorflow.lite.Interpreter;
-import org.tensorflow.lite.gpu.CompatibilityList;
-import org.tensorflow.lite.gpu.GpuDelegate;
-import org.tensorflow.lite.gpu.GpuDelegateFactory;
-
-import java.io.FileInputStream;
-import java.io.IOException;
-import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
-import java.nio.MappedByteBuffer;
-import java.nio.channels.FileChannel;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.List;
 
 
+/**
+ * Adapts bitmaps and camera frames to a {@link DetectionEngine} running the TFLite interpreter.
+ */
 public class TfliteDetector extends Detector {
 
     static {
@@ -42,22 +37,17 @@ public class TfliteDetector extends Detector {
     }
 
     private static final long FPS_INTERVAL_MS = 1000; // Update FPS every 1000 milliseconds (1 second)
-    private static final int NUM_BYTES_PER_CHANNEL = 4;
     private final Handler handler = new Handler(Looper.getMainLooper());
     private final Matrix transformationMatrix;
-    private final Bitmap pendingBitmapFrame;
-    private int numClasses;
+    protected final DetectionEngine engine;
+    private volatile Bitmap pendingBitmapFrame;
     private int frameCount = 0;
-    private double confidenceThreshold = 0.25f;
-    private double iouThreshold = 0.45f;
-    private int numItemsThreshold = 30;
-    private Interpreter interpreter;
-    private Object[] inputArray;
-    private int outputShape2;
-    private int outputShape3;
-    private float[][] output;
+    private AdaptiveInputSize adaptiveInputSize;
+    private volatile ObjectTracker tracker;
+    private volatile boolean trackerNeedsDetection = true;
+    private float[][] zones;
+    private float[][] mirroredZones;
     private long lastFpsTime = System.currentTimeMillis();
-    private Map<Integer, Object> outputMap;
     private ObjectDetectionResultCallback objectDetectionResultCallback;
     private FloatResultCallback inferenceTimeCallback;
     private FloatResultCallback fpsRateCallback;
@@ -65,8 +55,10 @@ public class TfliteDetector extends Detector {
     public TfliteDetector(Context context) {
         super(context);
 
-        pendingBitmapFrame = Bitmap.createBitmap(INPUT_SIZE, INPUT_SIZE, Bitmap.Config.ARGB_8888);
+        pendingBitmapFrame = Bitmap.createBitmap(inputSize, inputSize, Bitmap.Config.ARGB_8888);
         transformationMatrix = new Matrix();
+        engine = new DetectionEngine(inputSize, this::postprocessBatch);
+        engine.setStageRecorder(this::recordStage);
     }
 
     @Override
@@ -81,118 +73,227 @@ public class TfliteDetector extends Detector {
 
             final AssetManager assetManager = context.getAssets();
             loadLabels(assetManager, localYoloModel.metadataPath);
-            numClasses = labels.size();
             try {
-                MappedByteBuffer modelFile = loadModelFile(assetManager, localYoloModel.modelPath);
-                initDelegate(modelFile, useGpu);
+                engine.setRunner(TfliteRunner.load(assetManager, localYoloModel.modelPath, useGpu),
+                        labels.size(), inputSize);
             } catch (Exception e) {
                 throw new PredictorException("Error model");
             }
+            adaptiveInputSize = null;
         }
     }
 
     @Override
     public float[][] predict(Bitmap bitmap) {
+        engine.setZones(zones);
         try {
-            Bitmap resizedBitmap = Bitmap.createScaledBitmap(bitmap, INPUT_SIZE, INPUT_SIZE, true);
-            setInput(resizedBitmap);
-            return runInference();
+            return engine.predict(new BitmapPixelSource(bitmap, bitmapPool));
         } catch (Exception e) {
             return new float[0][];
         }
     }
 
+    @Override
+    public float[][][] predict(List<Bitmap> bitmaps) {
+        engine.setZones(zones);
+        return predictSources(bitmaps);
+    }
+
+    private float[][][] predictSources(List<Bitmap> bitmaps) {
+        List<BitmapPixelSource> sources = new ArrayList<>(bitmaps.size());
+        for (Bitmap bitmap : bitmaps) {
+            sources.add(new BitmapPixelSource(bitmap, bitmapPool));
+        }
+        return engine.predict(sources);
+    }
+
+    @Override
+    public float[][] predictTiled(Bitmap bitmap, int tileSize, float overlap) {
+        final int width = bitmap.getWidth();
+        final int height = bitmap.getHeight();
+        final int[][] tiles = Tiling.layout(width, height, tileSize, overlap);
+        final int maxBatchSize = getMaxBatchSize();
+        final int inputSize = engine.getInputSize();
+
+        List<float[][]> detections = new ArrayList<>(tiles.length + 1);
+        detections.add(predict(bitmap));
+        // Zones are in whole-image coordinates, so tiles are only filtered after the merge
+        engine.setZones(null);
+
+        // One batch of tiles at a time, so a large image never holds all of its tiles at once
+        List<Bitmap> tileBitmaps = new ArrayList<>(maxBatchSize);
+        for (int start = 0; start < tiles.length; start += maxBatchSize) {
+            final int end = Math.min(start + maxBatchSize, tiles.length);
+            tileBitmaps.clear();
+            for (int i = start; i < end; i++) {
+                final int[] tile = tiles[i];
+                tileBitmaps.add(bitmapPool.scale(bitmap,
+                        new Rect(tile[0], tile[1], tile[0] + tile[2], tile[1] + tile[3]), inputSize, inputSize));
+            }
+
+            final float[][][] res;
+            try {
+                res = predictSources(tileBitmaps);
+            } finally {
+                for (Bitmap tileBitmap : tileBitmaps) {
+                    bitmapPool.release(tileBitmap);
+                }
+            }
+            for (int i = start; i < end; i++) {
+                Tiling.toImageCoordinates(res[i - start], tiles[i], width, height);
+                detections.add(res[i - start]);
+            }
+        }
+
+        return Zones.filter(Tiling.merge(detections, engine.getIouThreshold(), engine.getNumItemsThreshold()),
+                zones);
+    }
+
+    @Override
+    public int getMaxBatchSize() {
+        return engine.getMaxBatchSize();
+    }
+
     @Override
     public void setConfidenceThreshold(float confidence) {
-        this.confidenceThreshold = confidence;
+        engine.setConfidenceThreshold(confidence);
     }
 
     @Override
     public void setIouThreshold(float iou) {
-        this.iouThreshold = iou;
+        engine.setIouThreshold(iou);
     }
 
     @Override
     public void setNumItemsThreshold(int numItems) {
-        this.numItemsThreshold = numItems;
+        engine.setNumItemsThreshold(numItems);
     }
 
     @Override
-    public void setObjectDetectionResultCallback(ObjectDetectionResultCallback callback) {
-        objectDetectionResultCallback = callback;
+    public void setClassFilter(int[] classes) {
+        engine.setClassFilter(classes);
     }
 
     @Override
-    public void setInferenceTimeCallback(FloatResultCallback callback) {
-        inferenceTimeCallback = callback;
+    public void setZones(float[][] zones) {
+        this.zones = zones;
+        // Front camera results are flipped after decoding, so their zones are flipped before
+        mirroredZones = Zones.mirror(zones);
     }
 
     @Override
-    public void setFpsRateCallback(FloatResultCallback callback) {
-        fpsRateCallback = callback;
+    public boolean setLatencyTarget(float targetMs, int[] inputSizes) {
+        if (targetMs <= 0) {
+            adaptiveInputSize = null;
+            if (engine.isDynamicInputShape() && engine.getInputSize() != inputSize) {
+                engine.resizeInput(engine.getBatchSize(), inputSize);
+            }
+            return true;
+        }
+        // Only models exported with a dynamic input shape can be resized in place
+        if (!engine.isDynamicInputShape()) {
+            return false;
+        }
+
+        int[] sizes = inputSizes != null && inputSizes.length > 0 ?
+                inputSizes : AdaptiveInputSize.defaultSizes(inputSize, stride);
+        adaptiveInputSize = new AdaptiveInputSize(sizes, targetMs);
+        engine.resizeInput(engine.getBatchSize(), adaptiveInputSize.getInputSize());
+        return true;
     }
 
-    private MappedByteBuffer loadModelFile(AssetManager assetManager, String modelPath) throws IOException {
-        // Local model from Flutter project
-        if (modelPath.startsWith("flutter_assets")) {
-            AssetFileDescriptor fileDescriptor = assetManager.openFd(modelPath);
-            FileInputStream inputStream = new FileInputStream(fileDescriptor.getFileDescriptor());
-            FileChannel fileChannel = inputStream.getChannel();
-            long startOffset = fileDescriptor.getStartOffset();
-            long declaredLength = fileDescriptor.getDeclaredLength();
-            return fileChannel.map(FileChannel.MapMode.READ_ONLY, startOffset, declaredLength);
+    @Override
+    public int getInputSize() {
+        return engine.getInputSize();
+    }
+
+    @Override
+    public boolean setTracking(boolean enabled, int detectionInterval, float minTrackConfidence) {
+        if (enabled) {
+            ObjectTracker objectTracker = new ObjectTracker();
+            objectTracker.configure(detectionInterval, minTrackConfidence);
+            tracker = objectTracker;
+        } else {
+            tracker = null;
         }
-        // Absolute path
-        else {
-            FileInputStream inputStream = new FileInputStream(modelPath);
-            FileChannel fileChannel = inputStream.getChannel();
-            long declaredLength = fileChannel.size();
-            return fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, declaredLength);
+        trackerNeedsDetection = true;
+        return true;
+    }
+
+    private Bitmap getFrameBitmap(int size) {
+        Bitmap frame = pendingBitmapFrame;
+        if (frame == null || frame.getWidth() != size) {
+            frame = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
+            pendingBitmapFrame = frame;
         }
+        return frame;
     }
 
-    private void initDelegate(MappedByteBuffer buffer, boolean useGpu) {
-        Interpreter.Options interpreterOptions = new Interpreter.Options();
-        try {
-            // Check if GPU support is available
-            CompatibilityList compatibilityList = new CompatibilityList();
-            if (useGpu && compatibilityList.isDelegateSupportedOnThisDevice()) {
-                GpuDelegateFactory.Options delegateOptions = compatibilityList.getBestOptionsForThisDevice();
-                GpuDelegate gpuDelegate = new GpuDelegate(delegateOptions.setQuantizedModelsAllowed(true));
-                interpreterOptions.addDelegate(gpuDelegate);
-            } else {
-            interpreterOptions.setNumThreads(4);
-            }
-            // Create the interpreter
-            this.interpreter = new Interpreter(buffer, interpreterOptions);
-        } catch (Exception e) {
-            interpreterOptions = new Interpreter.Options();
-            interpreterOptions.setNumThreads(4);
-            // Create the interpreter
-            this.interpreter = new Interpreter(buffer, interpreterOptions);
+    @Override
+    public void close() {
+        engine.close();
+    }
+
+    @Override
+    public void releaseFrameBuffers() {
+        pendingBitmapFrame = null;
+        final ObjectTracker frameTracker = tracker;
+        if (frameTracker != null) {
+            frameTracker.reset();
         }
+        trackerNeedsDetection = true;
+    }
+
+    @Override
+    public void setObjectDetectionResultCallback(ObjectDetectionResultCallback callback) {
+        objectDetectionResultCallback = callback;
+    }
+
+    @Override
+    public void setInferenceTimeCallback(FloatResultCallback callback) {
+        inferenceTimeCallback = callback;
+    }
 
-        int[] outputShape = interpreter.getOutputTensor(0).shape();
-        outputShape2 = outputShape[1];
-        outputShape3 = outputShape[2];
-        output = new float[outputShape2][outputShape3];
+    @Override
+    public void setFpsRateCallback(FloatResultCallback callback) {
+        fpsRateCallback = callback;
     }
 
     public void predict(ImageProxy imageProxy, boolean isMirrored) {
-        if (interpreter == null || imageProxy == null) {
+        if (!engine.hasRunner() || imageProxy == null) {
             return;
         }
 
+        // Between detector runs the tracker alone advances the boxes
+        final ObjectTracker frameTracker = tracker;
+        if (frameTracker != null && !trackerNeedsDetection) {
+            handler.post(() -> {
+                float[][] result = frameTracker.predict();
+                trackerNeedsDetection = frameTracker.needsDetection();
+                updateFps(System.currentTimeMillis());
+                onDetectionResult(result);
+            });
+            return;
+        }
+
+        // The input size may have been switched by the latency budget since the last frame
+        final int frameSize = engine.getInputSize();
+        final Bitmap frame = getFrameBitmap(frameSize);
+
+        long convertStart = System.nanoTime();
         Bitmap bitmap = ImageUtils.toBitmap(imageProxy);
-        Canvas canvas = new Canvas(pendingBitmapFrame);
+        recordStage(STAGE_CONVERT, convertStart);
+
+        long preprocessStart = System.nanoTime();
+        Canvas canvas = new Canvas(frame);
         
         // Calculate transformation based on orientation and mirroring
         transformationMatrix.reset();
         
         // Handle rotation based on image rotation
         float rotation = imageProxy.getImageInfo().getRotationDegrees();
-        float centerX = INPUT_SIZE / 2f;
-        float centerY = INPUT_SIZE / 2f;
+        float centerX = frameSize / 2f;
+        float centerY = frameSize / 2f;
         
         transformationMatrix.postRotate(rotation, centerX, centerY);
         
@@ -201,9 +302,9 @@ public class TfliteDetector extends Detector {
             transformationMatrix.postScale(-1, 1, centerX, centerY);
         }
         
-        // Scale the image to fit INPUT_SIZE
-        float scaleX = (float) INPUT_SIZE / bitmap.getWidth();
-        float scaleY = (float) INPUT_SIZE / bitmap.getHeight();
+        // Scale the image to fit the current input size
+        float scaleX = (float) frameSize / bitmap.getWidth();
+        float scaleY = (float) frameSize / bitmap.getHeight();
         float scale = Math.max(scaleX, scaleY);
         transformationMatrix.postScale(scale, scale, centerX, centerY);
         
@@ -213,96 +314,75 @@ public class TfliteDetector extends Detector {
         transformationMatrix.postTranslate(dx, dy);
         
         canvas.drawBitmap(bitmap, transformationMatrix, null);
+        recordStage(STAGE_PREPROCESS, preprocessStart);
 
         handler.post(() -> {
-            setInput(pendingBitmapFrame);
-
-            long start = System.currentTimeMillis();
-            float[][] result = runInference();
-            
-            // If front camera, flip the x coordinates of the bounding boxes
-            if (isMirrored) {
-                for (float[] detection : result) {
-                    if (detection != null && detection.length >= 4) {
-                        // Flip x coordinate
-                        detection[0] = 1.0f - detection[0];
-                    }
-                }
+            // Drop frames drawn before an input size switch
+            if (frameSize != engine.getInputSize()) {
+                recordDroppedFrame();
+                return;
             }
-            
-            long end = System.currentTimeMillis();
-
-            // Increment frame count
-            frameCount++;
+            engine.setZones(isMirrored ? mirroredZones : zones);
+            engine.process(new BitmapPixelSource(frame, bitmapPool), (result, inferenceTimeMs) -> {
+                // If front camera, flip the x coordinates of the bounding boxes
+                if (isMirrored) {
+                    mirror(result);
+                }
 
-            // Check if it's time to update FPS
-            long elapsedMillis = end - lastFpsTime;
-            if (elapsedMillis > FPS_INTERVAL_MS) {
-                // Calculate frames per second
-                float fps = (float) frameCount / elapsedMillis * 1000.f;
+                updateFps(System.currentTimeMillis());
 
-                // Reset counters for the next interval
-                lastFpsTime = end;
-                frameCount = 0;
+                if (frameTracker != null) {
+                    result = frameTracker.update(result);
+                    trackerNeedsDetection = frameTracker.needsDetection();
+                }
 
-                // Log or display the FPS
-                fpsRateCallback.onResult(fps);
-            }
+                if (adaptiveInputSize != null && adaptiveInputSize.update(inferenceTimeMs)) {
+                    engine.resizeInput(engine.getBatchSize(), adaptiveInputSize.getInputSize());
+                }
 
-            objectDetectionResultCallback.onResult(result);
-            inferenceTimeCallback.onResult(end - start);
+                onDetectionResult(result);
+                inferenceTimeCallback.onResult(inferenceTimeMs);
+            });
         });
     }
 
-    private void setInput(Bitmap resizedbitmap) {
-        ByteBuffer imgData = ByteBuffer.allocateDirect(1 * INPUT_SIZE * INPUT_SIZE * 3 * NUM_BYTES_PER_CHANNEL);
-        int[] intValues = new int[INPUT_SIZE * INPUT_SIZE];
-
-        resizedbitmap.getPixels(intValues, 0, resizedbitmap.getWidth(), 0, 0, resizedbitmap.getWidth(), resizedbitmap.getHeight());
-
-        imgData.order(ByteOrder.nativeOrder());
-        imgData.rewind();
-        for (int i = 0; i < INPUT_SIZE; ++i) {
-            for (int j = 0; j < INPUT_SIZE; ++j) {
-                int pixelValue = intValues[i * INPUT_SIZE + j];
-                float r = (((pixelValue >> 16) & 0xFF)) / 255.0f;
-                float g = (((pixelValue >> 8) & 0xFF)) / 255.0f;
-                float b = ((pixelValue & 0xFF)) / 255.0f;
-                imgData.putFloat(r);
-                imgData.putFloat(g);
-                imgData.putFloat(b);
+    /**
+     * Flips the results of a front camera frame horizontally.
+     */
+    protected void mirror(float[][] result) {
+        for (float[] detection : result) {
+            if (detection != null && detection.length >= 4) {
+                // Flip x coordinate
+                detection[0] = 1.0f - detection[0];
             }
         }
-        this.inputArray = new Object[]{imgData};
-        this.outputMap = new HashMap<>();
-        ByteBuffer outData = ByteBuffer.allocateDirect(outputShape2 * outputShape3 * NUM_BYTES_PER_CHANNEL);
-        outData.order(ByteOrder.nativeOrder());
-        outData.rewind();
-        outputMap.put(0, outData);
     }
 
-    private float[][] runInference() {
-        if (interpreter != null) {
-            interpreter.runForMultipleInputsOutputs(inputArray, outputMap);
+    private void updateFps(long now) {
+        // Increment frame count
+        frameCount++;
 
-            ByteBuffer byteBuffer = (ByteBuffer) outputMap.get(0);
-            if (byteBuffer != null) {
-                byteBuffer.rewind();
+        // Check if it's time to update FPS
+        long elapsedMillis = now - lastFpsTime;
+        if (elapsedMillis > FPS_INTERVAL_MS) {
+            // Calculate frames per second
+            float fps = (float) frameCount / elapsedMillis * 1000.f;
 
-                for (int j = 0; j < outputShape2; ++j) {
-                    for (int k = 0; k < outputShape3; ++k) {
-                        output[j][k] = byteBuffer.getFloat();
-                    }
-                }
+            // Reset counters for the next interval
+            lastFpsTime = now;
+            frameCount = 0;
 
-                return postprocess(output, outputShape3, outputShape2, (float) confidenceThreshold,
-                        (float) iouThreshold, numItemsThreshold, numClasses);
-            }
+            // Log or display the FPS
+            fpsRateCallback.onResult(fps);
         }
-        return new float[0][];
     }
 
-    private native float[][] postprocess(float[][] recognitions, int w, int h,
-                                         float confidenceThreshold, float iouThreshold,
-                                         int numItemsThreshold, int numClasses);
+    protected void onDetectionResult(float[][] result) {
+        objectDetectionResultCallback.onResult(result);
+    }
+
+    private native float[][][] postprocessBatch(float[] recognitions, int batch, int w, int h,
+                                                float confidenceThreshold, float iouThreshold,
+                                                int numItemsThreshold, int numClasses,
+                                                int[] classFilter, float[][] zones);
 }
@@ -0,0 +1,112 @@
+// Ultralytics 🚀 AGPL-3.0 License - https://ultralytics.com/license
+
+package com.ultralytics.ultralytics_yolo.predict.detect;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tile layout and cross-tile merging for sliced inference on large still images. Free of Android
+ * classes so the JVM benchmarks can run it.
+ */
+public final class Tiling {
+    private Tiling() {
+    }
+
+    /**
+     * Covers an image with square tiles that overlap their neighbours by {@code overlap} of the
+     * tile size. The last tile of each row and column is flush with the image edge, and images
+     * smaller than a tile get a single tile of their own size.
+     *
+     * @return [left, top, width, height] rows in pixels.
+     */
+    public static int[][] layout(int width, int height, int tileSize, float overlap) {
+        final int[] lefts = origins(width, tileSize, overlap);
+        final int[] tops = origins(height, tileSize, overlap);
+        final int tileWidth = Math.min(tileSize, width);
+        final int tileHeight = Math.min(tileSize, height);
+
+        int[][] tiles = new int[lefts.length * tops.length][];
+        int i = 0;
+        for (int top : tops) {
+            for (int left : lefts) {
+                tiles[i++] = new int[]{left, top, tileWidth, tileHeight};
+            }
+        }
+        return tiles;
+    }
+
+    private static int[] origins(int length, int tileSize, float overlap) {
+        if (length <= tileSize) {
+            return new int[]{0};
+        }
+        final int step = Math.max(1, Math.round(tileSize * (1 - overlap)));
+        final int count = (length - tileSize + step - 1) / step + 1;
+        int[] origins = new int[count];
+        for (int i = 0; i < count; i++) {
+            origins[i] = Math.min(i * step, length - tileSize);
+        }
+        return origins;
+    }
+
+    /**
+     * Maps [x, y, width, height, ...] detections normalized to a tile, in place, to coordinates
+     * normalized to the whole image.
+     */
+    public static void toImageCoordinates(float[][] detections, int[] tile, int width, int height) {
+        final float scaleX = (float) tile[2] / width;
+        final float scaleY = (float) tile[3] / height;
+        final float offsetX = (float) tile[0] / width;
+        final float offsetY = (float) tile[1] / height;
+        for (float[] detection : detections) {
+            detection[0] = offsetX + detection[0] * scaleX;
+            detection[1] = offsetY + detection[1] * scaleY;
+            detection[2] *= scaleX;
+            detection[3] *= scaleY;
+        }
+    }
+
+    /**
+     * Greedy class-agnostic NMS over the detections of all tiles, like the per-tile NMS of the
+     * native postprocess. Objects cut by a tile edge show up in several tiles and the most
+     * confident copy is kept.
+     *
+     * @param detections [x, y, width, height, confidence, index] rows in image coordinates.
+     */
+    public static float[][] merge(List<float[][]> detections, float iouThreshold, int maxDetections) {
+        List<float[]> candidates = new ArrayList<>();
+        for (float[][] tileDetections : detections) {
+            candidates.addAll(Arrays.asList(tileDetections));
+        }
+        candidates.sort((a, b) -> Float.compare(b[4], a[4]));
+
+        List<float[]> picked = new ArrayList<>();
+        for (float[] candidate : candidates) {
+            if (picked.size() >= maxDetections) {
+                break;
+            }
+            boolean keep = true;
+            for (float[] kept : picked) {
+                if (iou(candidate, kept) > iouThreshold) {
+                    keep = false;
+                    break;
+                }
+            }
+            if (keep) {
+                picked.add(candidate);
+            }
+        }
+        return picked.toArray(new float[0][]);
+    }
+
+    private static float iou(float[] a, float[] b) {
+        final float width = Math.min(a[0] + a[2], b[0] + b[2]) - Math.max(a[0], b[0]);
+        final float height = Math.min(a[1] + a[3], b[1] + b[3]) - Math.max(a[1], b[1]);
+        if (width <= 0 || height <= 0) {
+            return 0;
+        }
+        final float intersection = width * height;
+        return intersection / (a[2] * a[3] + b[2] * b[3] - intersection);
+    }
+}
@@ -0,0 +1,148 @@
+// Ultralytics 🚀 AGPL-3.0 License - https://ultralytics.com/license
+
+package com.ultralytics.ultralytics_yolo.predict.engine;
+
+import com.ultralytics.ultralytics_yolo.PipelineTracer;
+import com.ultralytics.ultralytics_yolo.predict.TensorUtils;
+import com.ultralytics.ultralytics_yolo.predict.classify.ClassificationResult;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Classification without Android dependencies, the counterpart of {@link DetectionEngine}.
+ * <p>
+ * Not thread-safe.
+ */
+public class ClassificationEngine {
+    private static final int NUM_BYTES_PER_CHANNEL = 4;
+
+    private TensorRunner runner;
+    private StageRecorder stageRecorder;
+    private boolean liveFrame = false;
+    private List<String> labels;
+    private int inputSize;
+    private int batchSize = 1;
+    private ByteBuffer input;
+    private ByteBuffer[] outputs;
+    private int[] pixels;
+    private float[] scores;
+
+    /**
+     * Sets the model and sizes its tensors. A dynamic batch is resized to one image, a fixed batch
+     * is kept and only its first slot is used, like the single-image path of
+     * {@link DetectionEngine}.
+     *
+     * @param labels Class names by output index.
+     */
+    public void setRunner(TensorRunner runner, int inputSize, List<String> labels) {
+        this.runner = runner;
+        this.inputSize = inputSize;
+        this.labels = labels;
+
+        if (runner.getInputShapeSignature()[0] == -1) {
+            runner.resizeInput(new int[]{1, inputSize, inputSize, 3});
+        }
+        batchSize = runner.getInputShape()[0];
+
+        input = ByteBuffer.allocateDirect(batchSize * inputSize * inputSize * 3 * NUM_BYTES_PER_CHANNEL)
+                .order(ByteOrder.nativeOrder());
+        pixels = new int[inputSize * inputSize];
+        scores = new float[runner.getOutputShape(0)[1]];
+        outputs = new ByteBuffer[]{ByteBuffer.allocateDirect(batchSize * scores.length * NUM_BYTES_PER_CHANNEL)
+                .order(ByteOrder.nativeOrder())};
+    }
+
+    public boolean hasRunner() {
+        return runner != null;
+    }
+
+    /**
+     * Releases the model. Later calls find no runner and return no results.
+     */
+    public void close() {
+        if (runner != null) {
+            runner.close();
+            runner = null;
+        }
+    }
+
+    public void setStageRecorder(StageRecorder stageRecorder) {
+        this.stageRecorder = stageRecorder;
+    }
+
+    /**
+     * @return Every class ordered by descending confidence.
+     */
+    public List<ClassificationResult> predict(PixelSource source) {
+        if (runner == null) {
+            return new ArrayList<>();
+        }
+        setInput(source);
+        return runInference();
+    }
+
+    /**
+     * Classifies one frame and hands the result to {@code sink}, with the time spent in the model
+     * and ranking.
+     */
+    public void process(PixelSource source, ResultSink<List<ClassificationResult>> sink) {
+        if (runner == null) {
+            return;
+        }
+        liveFrame = true;
+        try {
+            setInput(source);
+
+            long start = System.currentTimeMillis();
+            List<ClassificationResult> result = runInference();
+            sink.onResult(result, System.currentTimeMillis() - start);
+        } finally {
+            liveFrame = false;
+        }
+    }
+
+    private void setInput(PixelSource source) {
+        long setInputStart = System.nanoTime();
+        PipelineTracer.begin(PipelineTracer.SET_INPUT);
+        source.readPixels(inputSize, pixels);
+
+        // The other slots of a fixed batch stay zero, only the first row of scores is read
+        input.rewind();
+        TensorUtils.normalizePixels(pixels, pixels.length, input);
+        input.rewind();
+        PipelineTracer.end(PipelineTracer.SET_INPUT);
+        recordStage(StageRecorder.STAGE_SET_INPUT, setInputStart);
+    }
+
+    private List<ClassificationResult> runInference() {
+        long inferenceStart = System.nanoTime();
+        PipelineTracer.begin(PipelineTracer.RUN_INFERENCE);
+        runner.run(input, outputs);
+        PipelineTracer.end(PipelineTracer.RUN_INFERENCE);
+        recordStage(StageRecorder.STAGE_INFERENCE, inferenceStart);
+
+        long postprocessStart = System.nanoTime();
+        PipelineTracer.begin(PipelineTracer.POSTPROCESS);
+        ByteBuffer byteBuffer = outputs[0];
+        byteBuffer.rewind();
+        byteBuffer.asFloatBuffer().get(scores);
+
+        List<ClassificationResult> classificationResults = new ArrayList<>(scores.length);
+        for (int index : TensorUtils.rankByScore(scores)) {
+            classificationResults.add(new ClassificationResult(labels.get(index), index, scores[index]));
+        }
+        PipelineTracer.end(PipelineTracer.POSTPROCESS);
+        recordStage(StageRecorder.STAGE_POSTPROCESS, postprocessStart);
+        return classificationResults;
+    }
+
+    private void recordStage(int stage, long startNanos) {
+        StageRecorder recorder = stageRecorder;
+        if (recorder != null && liveFrame) {
+            recorder.record(stage, startNanos);
+        }
+    }
+}
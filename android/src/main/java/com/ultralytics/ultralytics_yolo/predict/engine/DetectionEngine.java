@@ -0,0 +1,460 @@
+// Ultralytics 🚀 AGPL-3.0 License - https://ultralytics.com/license
+
+package com.ultralytics.ultralytics_yolo.predict.engine;
+
+import com.ultralytics.ultralytics_yolo.PipelineTracer;
+import com.ultralytics.ultralytics_yolo.predict.TensorUtils;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Detection without Android dependencies: input packing, tensor I/O and output decoding around a
+ * {@link TensorRunner}. The Android detectors adapt bitmaps and camera frames to it, and the JVM
+ * benchmarks drive it with a stub runner.
+ * <p>
+ * Not thread-safe, only {@link #getInputSize()} may be read from another thread.
+ */
+public class DetectionEngine {
+    private static final int NUM_BYTES_PER_CHANNEL = 4;
+    private static final int MAX_BATCH_SIZE = 8; // Upper bound for models with a dynamic batch dimension
+
+    private final Postprocessor postprocessor;
+    private TensorRunner runner;
+    private OutputDecoder outputDecoder;
+    private StageRecorder stageRecorder;
+    private boolean liveFrame = false;
+    private float confidenceThreshold = 0.25f;
+    private float iouThreshold = 0.45f;
+    private int numItemsThreshold = 30;
+    private int[] classFilter;
+    private float[][] zones;
+    private int numClasses;
+    private volatile int inputSize;
+    private boolean dynamicInputShape = false;
+    private boolean dynamicBatch = false;
+    private int batchSize = 1;
+    private int detectionOutputIndex = 0;
+    private int outputRows;
+    private int outputColumns;
+    private boolean endToEnd = false;
+    private ByteBuffer input;
+    private ByteBuffer[] outputs = new ByteBuffer[0];
+    private int[] pixels = new int[0];
+    private float[] output = new float[0];
+
+    /**
+     * @param inputSize     Input size reported until a model is set.
+     * @param postprocessor Decodes raw [4 + classes][anchors] outputs, see {@link Postprocessor}.
+     */
+    public DetectionEngine(int inputSize, Postprocessor postprocessor) {
+        this.inputSize = inputSize;
+        this.postprocessor = postprocessor;
+    }
+
+    /**
+     * Sets the model and sizes its tensors. Models with a dynamic input shape are resized to
+     * {@code inputSize}.
+     */
+    public void setRunner(TensorRunner runner, int numClasses, int inputSize) {
+        this.runner = runner;
+        this.numClasses = numClasses;
+        this.inputSize = inputSize;
+
+        int[] inputShapeSignature = runner.getInputShapeSignature();
+        dynamicInputShape = inputShapeSignature[1] == -1 || inputShapeSignature[2] == -1;
+        dynamicBatch = inputShapeSignature[0] == -1;
+        batchSize = dynamicBatch ? 1 : runner.getInputShape()[0];
+        if (dynamicInputShape || dynamicBatch) {
+            resizeInput(batchSize, inputSize);
+        } else {
+            updateOutputShape();
+        }
+    }
+
+    public boolean hasRunner() {
+        return runner != null;
+    }
+
+    /**
+     * Releases the model. Later calls find no runner and return no results.
+     */
+    public void close() {
+        if (runner != null) {
+            runner.close();
+            runner = null;
+        }
+    }
+
+    /**
+     * Replaces the default decoding of single images, e.g. to decode masks from extra outputs.
+     */
+    public void setOutputDecoder(OutputDecoder outputDecoder) {
+        this.outputDecoder = outputDecoder;
+    }
+
+    public void setStageRecorder(StageRecorder stageRecorder) {
+        this.stageRecorder = stageRecorder;
+    }
+
+    public void setConfidenceThreshold(float confidenceThreshold) {
+        this.confidenceThreshold = confidenceThreshold;
+    }
+
+    public float getConfidenceThreshold() {
+        return confidenceThreshold;
+    }
+
+    public void setIouThreshold(float iouThreshold) {
+        this.iouThreshold = iouThreshold;
+    }
+
+    public float getIouThreshold() {
+        return iouThreshold;
+    }
+
+    public void setNumItemsThreshold(int numItemsThreshold) {
+        this.numItemsThreshold = numItemsThreshold;
+    }
+
+    public int getNumItemsThreshold() {
+        return numItemsThreshold;
+    }
+
+    /**
+     * Restricts decoding to the given class indices, so the other score rows are never read.
+     *
+     * @param classFilter Class indices, or null for every class. Indices the model does not have
+     *                    match nothing.
+     */
+    public void setClassFilter(int[] classFilter) {
+        this.classFilter = classFilter;
+    }
+
+    public int[] getClassFilter() {
+        return classFilter;
+    }
+
+    /**
+     * Drops candidates whose box center lies outside every zone, before NMS.
+     *
+     * @param zones Polygons in normalized input coordinates, see {@link Zones}, or null for the
+     *              whole input.
+     */
+    public void setZones(float[][] zones) {
+        this.zones = zones;
+    }
+
+    public float[][] getZones() {
+        return zones;
+    }
+
+    public int getNumClasses() {
+        return numClasses;
+    }
+
+    public int getInputSize() {
+        return inputSize;
+    }
+
+    public boolean isDynamicInputShape() {
+        return dynamicInputShape;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public int getMaxBatchSize() {
+        return dynamicBatch ? MAX_BATCH_SIZE : batchSize;
+    }
+
+    public void resizeInput(int batch, int size) {
+        runner.resizeInput(new int[]{batch, size, size, 3});
+        batchSize = batch;
+        inputSize = size;
+        updateOutputShape();
+    }
+
+    /**
+     * @return Index of the output holding the boxes and scores.
+     */
+    public int getDetectionOutputIndex() {
+        return detectionOutputIndex;
+    }
+
+    /**
+     * @return Rows of the detection output, 4 box rows and a score row per class plus any extras.
+     */
+    public int getOutputRows() {
+        return outputRows;
+    }
+
+    /**
+     * @return Columns of the detection output, one per anchor.
+     */
+    public int getOutputColumns() {
+        return outputColumns;
+    }
+
+    public int getOutputCount() {
+        return outputs.length;
+    }
+
+    public ByteBuffer getOutput(int index) {
+        return outputs[index];
+    }
+
+    public int[] getOutputShape(int index) {
+        return runner.getOutputShape(index);
+    }
+
+    private void updateOutputShape() {
+        // Models with extra outputs (e.g. segmentation prototypes) keep boxes in the rank 3 output
+        detectionOutputIndex = 0;
+        for (int i = 0; i < runner.getOutputCount(); i++) {
+            if (runner.getOutputShape(i).length == 3) {
+                detectionOutputIndex = i;
+                break;
+            }
+        }
+
+        int[] outputShape = runner.getOutputShape(detectionOutputIndex);
+        outputRows = outputShape[1];
+        outputColumns = outputShape[2];
+        // NMS-free exports emit final [detections][x1, y1, x2, y2, conf, class] rows
+        // instead of [4 + classes][anchors]
+        endToEnd = outputColumns == 6 && outputRows != numClasses + 4;
+
+        outputs = new ByteBuffer[runner.getOutputCount()];
+        for (int i = 0; i < outputs.length; i++) {
+            outputs[i] = ByteBuffer.allocateDirect(runner.getOutputBytes(i)).order(ByteOrder.nativeOrder());
+        }
+    }
+
+    /**
+     * Runs detection on one image.
+     *
+     * @return [x, y, width, height, confidence, index] detections.
+     */
+    public float[][] predict(PixelSource source) {
+        if (runner == null) {
+            return new float[0][];
+        }
+        setInput(Collections.singletonList(source));
+        return runInference();
+    }
+
+    /**
+     * Runs detection on one frame and hands the result to {@code sink}, with the time spent in
+     * the model and decoding.
+     */
+    public void process(PixelSource source, ResultSink<float[][]> sink) {
+        if (runner == null) {
+            return;
+        }
+        liveFrame = true;
+        try {
+            setInput(Collections.singletonList(source));
+
+            long start = System.currentTimeMillis();
+            float[][] result = runInference();
+            sink.onResult(result, System.currentTimeMillis() - start);
+        } finally {
+            liveFrame = false;
+        }
+    }
+
+    /**
+     * Runs detection on several images, packing up to {@link #getMaxBatchSize()} of them into
+     * each model run.
+     *
+     * @return One array of [x, y, width, height, confidence, index] detections per image.
+     * @throws RuntimeException When a model run fails, instead of returning empty results for
+     *                          the images it did not get to.
+     */
+    public float[][][] predict(List<? extends PixelSource> sources) {
+        float[][][] results = new float[sources.size()][][];
+        if (runner == null) {
+            Arrays.fill(results, new float[0][]);
+            return results;
+        }
+        try {
+            final int maxBatchSize = getMaxBatchSize();
+            for (int start = 0; start < sources.size(); start += maxBatchSize) {
+                final int count = Math.min(maxBatchSize, sources.size() - start);
+                if (dynamicBatch && batchSize != count) {
+                    resizeInput(count, inputSize);
+                }
+                setInput(sources.subList(start, start + count));
+                System.arraycopy(runBatchInference(count), 0, results, start, count);
+            }
+        } finally {
+            // Single images and live frames always run with a batch of one
+            if (dynamicBatch && batchSize != 1) {
+                resizeInput(1, inputSize);
+            }
+        }
+        return results;
+    }
+
+    private void setInput(List<? extends PixelSource> sources) {
+        long setInputStart = System.nanoTime();
+        PipelineTracer.begin(PipelineTracer.SET_INPUT);
+        final int pixelCount = inputSize * inputSize;
+        final int capacity = batchSize * pixelCount * 3 * NUM_BYTES_PER_CHANNEL;
+        if (input == null || input.capacity() != capacity) {
+            input = ByteBuffer.allocateDirect(capacity).order(ByteOrder.nativeOrder());
+        }
+        if (pixels.length != pixelCount) {
+            pixels = new int[pixelCount];
+        }
+
+        // Slots of a fixed batch that are not filled keep stale pixels, their results are dropped
+        input.rewind();
+        for (PixelSource source : sources) {
+            source.readPixels(inputSize, pixels);
+            TensorUtils.normalizePixels(pixels, pixelCount, input);
+        }
+        input.rewind();
+        PipelineTracer.end(PipelineTracer.SET_INPUT);
+        recordStage(StageRecorder.STAGE_SET_INPUT, setInputStart);
+    }
+
+    private void run() {
+        long inferenceStart = System.nanoTime();
+        PipelineTracer.begin(PipelineTracer.RUN_INFERENCE);
+        runner.run(input, outputs);
+        PipelineTracer.end(PipelineTracer.RUN_INFERENCE);
+        recordStage(StageRecorder.STAGE_INFERENCE, inferenceStart);
+    }
+
+    private float[][] runInference() {
+        run();
+
+        long postprocessStart = System.nanoTime();
+        PipelineTracer.begin(PipelineTracer.POSTPROCESS);
+        float[][] result = outputDecoder != null ? outputDecoder.decode(this) : decode();
+        PipelineTracer.end(PipelineTracer.POSTPROCESS);
+        recordStage(StageRecorder.STAGE_POSTPROCESS, postprocessStart);
+        return result;
+    }
+
+    /**
+     * Turns the outputs of the first image of the last run into
+     * [x, y, width, height, confidence, index] detections.
+     */
+    public float[][] decode() {
+        return decodeBatch(1)[0];
+    }
+
+    private float[][][] runBatchInference(int count) {
+        run();
+        return decodeBatch(count);
+    }
+
+    private float[][][] decodeBatch(int count) {
+        ByteBuffer byteBuffer = outputs[detectionOutputIndex];
+        if (endToEnd) {
+            float[][][] results = new float[count][][];
+            for (int b = 0; b < count; b++) {
+                results[b] = decodeEndToEnd(byteBuffer, b * outputRows * outputColumns);
+            }
+            return results;
+        }
+
+        final int length = count * outputRows * outputColumns;
+        if (output.length != length) {
+            output = new float[length];
+        }
+        byteBuffer.rewind();
+        byteBuffer.asFloatBuffer().get(output);
+
+        return postprocessor.postprocess(output, count, outputColumns, outputRows, confidenceThreshold,
+                iouThreshold, numItemsThreshold, numClasses, classFilter, zones);
+    }
+
+    /**
+     * Decodes one slice of an end-to-end output. The model has already applied NMS, so only the
+     * confidence threshold, the item limit and clamping are left to do.
+     *
+     * @param offset Index of the first float of the slice.
+     */
+    private float[][] decodeEndToEnd(ByteBuffer byteBuffer, int offset) {
+        // Exports either normalize boxes or keep them in input pixels
+        float scale = 1.f;
+        for (int i = 0; i < outputRows; i++) {
+            if (byteBuffer.getFloat((offset + i * 6 + 2) * NUM_BYTES_PER_CHANNEL) > 1.5f) {
+                scale = 1.f / inputSize;
+                break;
+            }
+        }
+
+        List<float[]> detections = new ArrayList<>();
+        for (int i = 0; i < outputRows && detections.size() < numItemsThreshold; i++) {
+            int base = (offset + i * 6) * NUM_BYTES_PER_CHANNEL;
+            float confidence = byteBuffer.getFloat(base + 4 * NUM_BYTES_PER_CHANNEL);
+            // Padding rows have zero confidence
+            if (confidence <= confidenceThreshold) {
+                continue;
+            }
+
+            float x0 = Math.max(0.f, byteBuffer.getFloat(base) * scale);
+            float y0 = Math.max(0.f, byteBuffer.getFloat(base + NUM_BYTES_PER_CHANNEL) * scale);
+            float x1 = Math.min(1.f, byteBuffer.getFloat(base + 2 * NUM_BYTES_PER_CHANNEL) * scale);
+            float y1 = Math.min(1.f, byteBuffer.getFloat(base + 3 * NUM_BYTES_PER_CHANNEL) * scale);
+            float index = byteBuffer.getFloat(base + 5 * NUM_BYTES_PER_CHANNEL);
+            if (!passesClassFilter((int) index) || !Zones.contains(zones, (x0 + x1) / 2, (y0 + y1) / 2)) {
+                continue;
+            }
+
+            detections.add(new float[]{x0, y0, x1 - x0, y1 - y0, confidence, index});
+        }
+        return detections.toArray(new float[0][]);
+    }
+
+    private boolean passesClassFilter(int index) {
+        if (classFilter == null) {
+            return true;
+        }
+        for (int filtered : classFilter) {
+            if (filtered == index) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void recordStage(int stage, long startNanos) {
+        StageRecorder recorder = stageRecorder;
+        if (recorder != null && liveFrame) {
+            recorder.record(stage, startNanos);
+        }
+    }
+
+    /**
+     * Confidence filtering and NMS of raw outputs, native on Android and a Java port on the JVM.
+     */
+    public interface Postprocessor {
+        /**
+         * @param output      [batch][h][w] outputs with h = 4 box rows + numClasses score rows and w anchors.
+         * @param classFilter Class indices to score, or null for every class.
+         * @param zones       Zones the box centers must lie in, see {@link Zones}, or null.
+         * @return One array of [x, y, width, height, confidence, index] detections per image.
+         */
+        float[][][] postprocess(float[] output, int batch, int w, int h, float confidenceThreshold,
+                                float iouThreshold, int numItemsThreshold, int numClasses,
+                                int[] classFilter, float[][] zones);
+    }
+
+    public interface OutputDecoder {
+        /**
+         * Decodes the outputs of the first image of the last run.
+         */
+        float[][] decode(DetectionEngine engine);
+    }
+}
@@ -0,0 +1,15 @@
+// Ultralytics 🚀 AGPL-3.0 License - https://ultralytics.com/license
+
+package com.ultralytics.ultralytics_yolo.predict.engine;
+
+/**
+ * An image the engines can read input pixels from, e.g. a bitmap on Android or a plain pixel
+ * array on the JVM.
+ */
+public interface PixelSource {
+    /**
+     * Writes the image, scaled to a {@code size} x {@code size} square, as ARGB pixels in row-major
+     * order.
+     */
+    void readPixels(int size, int[] pixels);
+}
@@ -0,0 +1,13 @@
+// Ultralytics 🚀 AGPL-3.0 License - https://ultralytics.com/license
+
+package com.ultralytics.ultralytics_yolo.predict.engine;
+
+/**
+ * Receives the result of a frame processed by an engine.
+ */
+public interface ResultSink<T> {
+    /**
+     * @param inferenceTimeMs Time spent running the model and decoding its outputs.
+     */
+    void onResult(T result, long inferenceTimeMs);
+}
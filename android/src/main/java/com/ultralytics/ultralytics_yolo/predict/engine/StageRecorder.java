@@ -0,0 +1,18 @@
+// Ultralytics 🚀 AGPL-3.0 License - https://ultralytics.com/license
+
+package com.ultralytics.ultralytics_yolo.predict.engine;
+
+/**
+ * Receives the timing of the pipeline stages run by the engines for live frames, i.e. only from
+ * {@code process}. Still images and batches are left out so they do not skew the live latencies.
+ */
+public interface StageRecorder {
+    int STAGE_SET_INPUT = 2; // Pixel normalization into the input tensor
+    int STAGE_INFERENCE = 3; // Model invocation
+    int STAGE_POSTPROCESS = 4; // Output decoding and NMS
+
+    /**
+     * @param startNanos Start of the stage, in {@link System#nanoTime()}.
+     */
+    void record(int stage, long startNanos);
+}
@@ -0,0 +1,45 @@
+// Ultralytics 🚀 AGPL-3.0 License - https://ultralytics.com/license
+
+package com.ultralytics.ultralytics_yolo.predict.engine;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Runs a model with one float input tensor, e.g. the TFLite interpreter on Android or a stub on
+ * the JVM.
+ */
+public interface TensorRunner {
+    /**
+     * @return Input shape [batch, height, width, channels], with -1 for dynamic dimensions.
+     */
+    int[] getInputShapeSignature();
+
+    /**
+     * @return Current input shape [batch, height, width, channels].
+     */
+    int[] getInputShape();
+
+    /**
+     * Resizes the dynamic dimensions of the input. Output shapes may change with it.
+     */
+    void resizeInput(int[] shape);
+
+    int getOutputCount();
+
+    int[] getOutputShape(int index);
+
+    int getOutputBytes(int index);
+
+    /**
+     * Runs the model.
+     *
+     * @param input   Input tensor in native order.
+     * @param outputs One buffer per output tensor in native order, written from position 0.
+     */
+    void run(ByteBuffer input, ByteBuffer[] outputs);
+
+    /**
+     * Releases the model. The runner cannot be used afterwards.
+     */
+    void close();
+}
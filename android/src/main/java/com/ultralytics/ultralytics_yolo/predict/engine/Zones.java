@@ -0,0 +1,78 @@
+// Ultralytics 🚀 AGPL-3.0 License - https://ultralytics.com/license
+
+package com.ultralytics.ultralytics_yolo.predict.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Polygon zones in normalized image coordinates, each given as [x0, y0, x1, y1, ...]. The native
+ * postprocess applies the same test to box centers before NMS, this is the Java counterpart for
+ * the paths that decode in Java.
+ */
+public final class Zones {
+    private Zones() {
+    }
+
+    /**
+     * Even-odd test of whether ({@code x}, {@code y}) lies inside any of the zones.
+     *
+     * @param zones Polygons, or null for no restriction.
+     */
+    public static boolean contains(float[][] zones, float x, float y) {
+        if (zones == null) {
+            return true;
+        }
+        for (float[] polygon : zones) {
+            final int count = polygon.length / 2;
+            boolean inside = false;
+            for (int i = 0, j = count - 1; i < count; j = i++) {
+                final float xi = polygon[2 * i];
+                final float yi = polygon[2 * i + 1];
+                final float xj = polygon[2 * j];
+                final float yj = polygon[2 * j + 1];
+                if ((yi > y) != (yj > y) && x < (xj - xi) * (y - yi) / (yj - yi) + xi) {
+                    inside = !inside;
+                }
+            }
+            if (inside) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param detections [x, y, width, height, ...] rows with a top-left corner.
+     * @return The detections whose box center lies inside any of the zones.
+     */
+    public static float[][] filter(float[][] detections, float[][] zones) {
+        if (zones == null) {
+            return detections;
+        }
+        List<float[]> kept = new ArrayList<>(detections.length);
+        for (float[] detection : detections) {
+            if (contains(zones, detection[0] + detection[2] / 2, detection[1] + detection[3] / 2)) {
+                kept.add(detection);
+            }
+        }
+        return kept.toArray(new float[0][]);
+    }
+
+    /**
+     * @return The zones flipped horizontally, for frames whose results are mirrored afterwards.
+     */
+    public static float[][] mirror(float[][] zones) {
+        if (zones == null) {
+            return null;
+        }
+        float[][] mirrored = new float[zones.length][];
+        for (int z = 0; z < zones.length; z++) {
+            mirrored[z] = zones[z].clone();
+            for (int i = 0; i < mirrored[z].length; i += 2) {
+                mirrored[z][i] = 1.f - mirrored[z][i];
+            }
+        }
+        return mirrored;
+    }
+}
@@ -0,0 +1,32 @@
+// Ultralytics 🚀 AGPL-3.0 License - https://ultralytics.com/license
+
+package com.ultralytics.ultralytics_yolo.predict.segment;
+
+import androidx.annotation.Keep;
+
+/**
+ * A detector that also produces an instance mask for every detection.
+ * <p>
+ * Masks are square, bit-packed grids of {@link #setMaskResolution(int) maskResolution} cells
+ * spanning the detection box, row-major with the most significant bit first.
+ */
+public interface Segmenter {
+    void setSegmentationResultCallback(SegmentationResultCallback callback);
+
+    /**
+     * @param maskResolution Cells along each side of a mask, clamped to [1, 256].
+     */
+    void setMaskResolution(int maskResolution);
+
+    int getMaskResolution();
+
+    /**
+     * Returns the masks of the most recent still image prediction, aligned with its detections.
+     */
+    byte[][] getMasks();
+
+    interface SegmentationResultCallback {
+        @Keep()
+        void onResult(float[][] detections, byte[][] masks);
+    }
+}
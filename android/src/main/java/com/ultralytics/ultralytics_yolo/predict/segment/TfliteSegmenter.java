@@ -0,0 +1,148 @@
+// Ultralytics 🚀 AGPL-3.0 License - https://ultralytics.com/license
+
+package com.ultralytics.ultralytics_yolo.predict.segment;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+
+import com.ultralytics.ultralytics_yolo.predict.detect.TfliteDetector;
+import com.ultralytics.ultralytics_yolo.predict.engine.DetectionEngine;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+public class TfliteSegmenter extends TfliteDetector implements Segmenter {
+    private static final int DEFAULT_MASK_RESOLUTION = 64;
+    public static final int MAX_MASK_RESOLUTION = 256;
+    private int maskResolution = DEFAULT_MASK_RESOLUTION;
+    private byte[][] masks = new byte[0][];
+    private SegmentationResultCallback segmentationResultCallback;
+
+    public TfliteSegmenter(Context context) {
+        super(context);
+        engine.setOutputDecoder(this::decodeSegments);
+    }
+
+    @Override
+    public void setSegmentationResultCallback(SegmentationResultCallback callback) {
+        segmentationResultCallback = callback;
+    }
+
+    @Override
+    public void setMaskResolution(int maskResolution) {
+        this.maskResolution = Math.max(1, Math.min(maskResolution, MAX_MASK_RESOLUTION));
+    }
+
+    @Override
+    public int getMaskResolution() {
+        return maskResolution;
+    }
+
+    @Override
+    public byte[][] getMasks() {
+        return masks;
+    }
+
+    @Override
+    public boolean setTracking(boolean enabled, int detectionInterval, float minTrackConfidence) {
+        // Masks are decoded per inference and cannot follow predicted boxes
+        return !enabled && super.setTracking(false, detectionInterval, minTrackConfidence);
+    }
+
+    @Override
+    public float[][] predict(Bitmap bitmap) {
+        masks = new byte[0][];
+        return super.predict(bitmap);
+    }
+
+    @Override
+    public float[][][] predict(List<Bitmap> bitmaps) {
+        // Masks are only decoded for single images, batches go through the box-only path
+        masks = new byte[0][];
+        return super.predict(bitmaps);
+    }
+
+    private float[][] decodeSegments(DetectionEngine engine) {
+        final int detectionIndex = engine.getDetectionOutputIndex();
+        final int protoIndex = detectionIndex == 0 ? 1 : 0;
+        if (engine.getOutputCount() < 2) {
+            masks = new byte[0][];
+            return new float[0][];
+        }
+        ByteBuffer detectionBuffer = engine.getOutput(detectionIndex);
+        ByteBuffer protoBuffer = engine.getOutput(protoIndex);
+
+        // [1][4 + classes + masks][anchors]
+        final int rows = engine.getOutputRows();
+        final int columns = engine.getOutputColumns();
+        final int numClasses = engine.getNumClasses();
+        final int numMasks = rows - 4 - numClasses;
+        float[] recognitions = new float[rows * columns];
+        detectionBuffer.rewind();
+        detectionBuffer.asFloatBuffer().get(recognitions);
+
+        float[][] detections = postprocessSegment(recognitions, columns, rows, engine.getConfidenceThreshold(),
+                engine.getIouThreshold(), engine.getNumItemsThreshold(), numClasses, numMasks,
+                engine.getClassFilter(), engine.getZones());
+
+        // [1][protoHeight][protoWidth][masks], only read once there is something to decode
+        if (detections.length > 0) {
+            int[] protoShape = engine.getOutputShape(protoIndex);
+            float[] prototypes = new float[protoShape[1] * protoShape[2] * protoShape[3]];
+            protoBuffer.rewind();
+            protoBuffer.asFloatBuffer().get(prototypes);
+
+            masks = processMasks(prototypes, protoShape[1], protoShape[2], numMasks, detections, maskResolution);
+        } else {
+            masks = new byte[0][];
+        }
+
+        // Strip the mask coefficients so callers see the regular detection layout
+        for (int i = 0; i < detections.length; i++) {
+            detections[i] = Arrays.copyOf(detections[i], 6);
+        }
+        return detections;
+    }
+
+    @Override
+    protected void mirror(float[][] result) {
+        super.mirror(result);
+        // Masks of the last decode, aligned with the result
+        for (int i = 0; i < masks.length; i++) {
+            masks[i] = mirrorColumns(masks[i], maskResolution);
+        }
+    }
+
+    private static byte[] mirrorColumns(byte[] mask, int resolution) {
+        byte[] mirrored = new byte[mask.length];
+        for (int y = 0; y < resolution; y++) {
+            final int row = y * resolution;
+            for (int x = 0; x < resolution; x++) {
+                final int bit = row + x;
+                if ((mask[bit >> 3] & (0x80 >> (bit & 7))) != 0) {
+                    final int flipped = row + resolution - 1 - x;
+                    mirrored[flipped >> 3] |= (byte) (0x80 >> (flipped & 7));
+                }
+            }
+        }
+        return mirrored;
+    }
+
+    @Override
+    protected void onDetectionResult(float[][] result) {
+        if (segmentationResultCallback != null) {
+            segmentationResultCallback.onResult(result, masks);
+        } else {
+            super.onDetectionResult(result);
+        }
+    }
+
+    private native float[][] postprocessSegment(float[] recognitions, int w, int h,
+                                                float confidenceThreshold, float iouThreshold,
+                                                int numItemsThreshold, int numClasses, int numMasks,
+                                                int[] classFilter, float[][] zones);
+
+    private native byte[][] processMasks(float[] prototypes, int protoHeight, int protoWidth, int numMasks,
+                                         float[][] detections, int maskResolution);
+}
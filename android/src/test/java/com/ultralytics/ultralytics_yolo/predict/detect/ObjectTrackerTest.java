@@ -0,0 +1,161 @@
+// Ultralytics 🚀 AGPL-3.0 License - https://ultralytics.com/license
+
+package com.ultralytics.ultralytics_yolo.predict.detect;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Drives the tracker with synthetic constant-velocity boxes, so every run sees the same sequence.
+ */
+public class ObjectTrackerTest {
+    private static final float SIZE = 0.1f;
+    private static final float TOLERANCE = 0.01f;
+
+    /**
+     * [x, y, width, height, confidence, index] row of a box whose top-left corner starts at
+     * ({@code x}, {@code y}) and moves by ({@code dx}, {@code dy}) per frame.
+     */
+    private static float[] box(float x, float y, float dx, float dy, int frame, float confidence, int index) {
+        return new float[]{x + dx * frame, y + dy * frame, SIZE, SIZE, confidence, index};
+    }
+
+    private static float[][] frame(int frame, float confidence) {
+        return new float[][]{
+                box(0.1f, 0.2f, 0.01f, 0.005f, frame, confidence, 0),
+                box(0.7f, 0.6f, -0.008f, 0.f, frame, confidence, 1),
+        };
+    }
+
+    private static float[] findClass(float[][] tracks, int index) {
+        for (float[] track : tracks) {
+            if ((int) track[5] == index) {
+                return track;
+            }
+        }
+        throw new AssertionError("No track of class " + index);
+    }
+
+    @Test
+    public void keepsTrackIdsStable() {
+        ObjectTracker tracker = new ObjectTracker();
+        tracker.configure(1, 0.35f);
+
+        // A new track is only reported from its second detection
+        assertEquals(0, tracker.update(frame(0, 0.9f)).length);
+        float[][] tracks = tracker.update(frame(1, 0.9f));
+        assertEquals(2, tracks.length);
+        final float firstId = findClass(tracks, 0)[6];
+        final float secondId = findClass(tracks, 1)[6];
+        assertNotEquals(firstId, secondId, 0);
+
+        for (int f = 2; f < 30; f++) {
+            tracks = tracker.update(frame(f, 0.9f));
+            assertEquals(2, tracks.length);
+            assertEquals(firstId, findClass(tracks, 0)[6], 0);
+            assertEquals(secondId, findClass(tracks, 1)[6], 0);
+        }
+    }
+
+    @Test
+    public void followsDetectionsAndExtrapolatesBetweenThem() {
+        ObjectTracker tracker = new ObjectTracker();
+        tracker.configure(3, 0.35f);
+
+        int f = 0;
+        for (; f < 20; f++) {
+            float[][] tracks = tracker.update(frame(f, 0.9f));
+            if (f >= 10) {
+                float[] expected = frame(f, 0.9f)[0];
+                float[] track = findClass(tracks, 0);
+                assertEquals(expected[0], track[0], TOLERANCE);
+                assertEquals(expected[1], track[1], TOLERANCE);
+                assertEquals(SIZE, track[2], TOLERANCE);
+                assertEquals(SIZE, track[3], TOLERANCE);
+            }
+        }
+
+        // Frames without detections continue the learned velocity
+        for (; f < 23; f++) {
+            float[] expected = frame(f, 0.9f)[1];
+            float[] track = findClass(tracker.predict(), 1);
+            assertEquals(expected[0], track[0], TOLERANCE);
+            assertEquals(expected[1], track[1], TOLERANCE);
+        }
+    }
+
+    @Test
+    public void requestsDetectionWhenConfidenceDecays() {
+        ObjectTracker tracker = new ObjectTracker();
+        tracker.configure(100, 0.5f);
+
+        tracker.update(frame(0, 0.6f));
+        tracker.update(frame(1, 0.6f));
+        assertFalse(tracker.needsDetection());
+
+        // 0.6 decays by 5% per frame and drops below 0.5 on the fourth predicted frame
+        for (int f = 2; f < 5; f++) {
+            tracker.predict();
+            assertFalse(tracker.needsDetection());
+        }
+        tracker.predict();
+        assertTrue(tracker.needsDetection());
+
+        // A fresh detection restores the confidence
+        tracker.update(frame(6, 0.6f));
+        assertFalse(tracker.needsDetection());
+    }
+
+    @Test
+    public void keepsTrackingSteadyLowConfidenceObjects() {
+        ObjectTracker tracker = new ObjectTracker();
+        tracker.configure(3, 0.35f);
+
+        // Started by a confident detection, then matched below the gate on every detector run
+        tracker.update(frame(0, 0.9f));
+        tracker.update(frame(1, 0.3f));
+        assertFalse(tracker.needsDetection());
+        tracker.predict();
+        tracker.predict();
+        assertFalse(tracker.needsDetection());
+        tracker.predict();
+        assertTrue(tracker.needsDetection());
+    }
+
+    @Test
+    public void stopsReportingVanishedTrackAfterInterval() {
+        ObjectTracker tracker = new ObjectTracker();
+        tracker.configure(3, 0.35f);
+
+        tracker.update(frame(0, 0.9f));
+        assertEquals(2, tracker.update(frame(1, 0.9f)).length);
+
+        // Both objects vanish: two tracker-only frames, then a detector run that finds nothing
+        assertEquals(2, tracker.predict().length);
+        assertEquals(2, tracker.predict().length);
+        assertEquals(2, tracker.update(new float[0][]).length);
+
+        // One interval of frames after the last match, the tracks are no longer reported
+        assertEquals(0, tracker.predict().length);
+        assertEquals(0, tracker.predict().length);
+        assertEquals(0, tracker.update(new float[0][]).length);
+    }
+
+    @Test
+    public void requestsDetectionAfterInterval() {
+        ObjectTracker tracker = new ObjectTracker();
+        tracker.configure(3, 0.35f);
+        assertTrue(tracker.needsDetection());
+
+        tracker.update(frame(0, 0.9f));
+        tracker.predict();
+        tracker.predict();
+        assertFalse(tracker.needsDetection());
+        tracker.predict();
+        assertTrue(tracker.needsDetection());
+    }
+}
@@ -78,8 +78,13 @@ class UltralyticsYoloCameraController
     await _ultralyticsYoloPlatform.startCamera();
   }
 
-  /// Stops the camera
+  /// Pauses live prediction while the preview keeps running
   Future<void> pauseLivePrediction() async {
     await _ultralyticsYoloPlatform.pauseLivePrediction();
   }
+
+  /// Resumes live prediction with the loaded model
+  Future<void> resumeLivePrediction() async {
+    await _ultralyticsYoloPlatform.resumeLivePrediction();
+  }
 }
\ No newline at end of file
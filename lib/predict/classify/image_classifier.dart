@@ -1,4 +1,5 @@
 import 'package:ultralytics_yolo/predict/classify/classification_result.dart';
+import 'package:ultralytics_yolo/predict/directory_job_event.dart';
 import 'package:ultralytics_yolo/predict/predictor.dart';
 import 'package:ultralytics_yolo/yolo_model.dart';
 
@@ -14,4 +15,16 @@ class ImageClassifier extends Predictor {
   /// Classifies an image from the given [imagePath].
   Future<List<ClassificationResult?>?> classify({required String imagePath}) =>
       ultralyticsYoloPlatform.classifyImage(imagePath);
+
+  /// Classifies every image below [directoryPath], streaming one event per
+  /// file. Pass the checkpoint of an earlier event as [resumeAfter] to
+  /// continue an interrupted job. Cancelling the subscription cancels the job.
+  Stream<DirectoryJobEvent<ClassificationResult>> classifyDirectory({
+    required String directoryPath,
+    String? resumeAfter,
+  }) =>
+      ultralyticsYoloPlatform.classifyDirectory(
+        directoryPath,
+        resumeAfter: resumeAfter,
+      );
 }
@@ -1,3 +1,4 @@
+import 'dart:typed_data';
 import 'dart:ui';
 
 /// A detected object.
@@ -8,6 +9,9 @@ class DetectedObject {
     required this.boundingBox,
     required this.index,
     required this.label,
+    this.mask,
+    this.maskResolution,
+    this.trackId,
   });
 
   /// Creates a [DetectedObject] from a [json] object.
@@ -22,6 +26,9 @@ class DetectedObject {
       ),
       index: json['index'] as int,
       label: json['label'] as String,
+      mask: json['mask'] as Uint8List?,
+      maskResolution: json['maskResolution'] as int?,
+      trackId: json['trackId'] as int?,
     );
   }
 
@@ -36,4 +43,23 @@ class DetectedObject {
 
   /// The label of the detection.
   final String label;
+
+  /// The instance mask of a segmentation model, or null for detection models.
+  ///
+  /// A bit-packed, row-major grid of [maskResolution] x [maskResolution]
+  /// cells spanning [boundingBox], most significant bit first.
+  final Uint8List? mask;
+
+  /// The number of mask cells along each side of [boundingBox].
+  final int? maskResolution;
+
+  /// The persistent ID of the track this detection belongs to, or null when
+  /// tracking is disabled.
+  final int? trackId;
+
+  /// Whether the mask covers the cell at ([column], [row]).
+  bool maskContains(int column, int row) {
+    final bit = row * maskResolution! + column;
+    return (mask![bit >> 3] & (0x80 >> (bit & 7))) != 0;
+  }
 }
@@ -1,4 +1,5 @@
 import 'package:ultralytics_yolo/predict/detect/detected_object.dart';
+import 'package:ultralytics_yolo/predict/directory_job_event.dart';
 import 'package:ultralytics_yolo/predict/predictor.dart';
 import 'package:ultralytics_yolo/yolo_model.dart';
 
@@ -26,7 +27,115 @@ class ObjectDetector extends Predictor {
     super.ultralyticsYoloPlatform.setNumItemsThreshold(numItems);
   }
 
+  /// Only detects the classes at the given [indices] of the model labels.
+  /// The other classes are skipped while decoding rather than filtered out
+  /// afterwards. Pass null to detect every class again. An index outside the
+  /// model labels throws a `PlatformException`.
+  Future<String?> setClassFilter(List<int>? indices) =>
+      super.ultralyticsYoloPlatform.setClassFilter(indices);
+
+  /// Only reports detections whose box center lies inside one of the
+  /// [zones], polygons given as `[x0, y0, x1, y1, ...]` in fractions of the
+  /// image width and height. For the camera the image is the region the
+  /// results are reported in. Detections outside are dropped before
+  /// non-maximum suppression. Pass null to cover the whole image again. A
+  /// zone with fewer than three points throws a `PlatformException`.
+  Future<String?> setZones(List<List<double>>? zones) =>
+      super.ultralyticsYoloPlatform.setZones(zones);
+
+  /// Sets the number of mask cells along each side of a detection box for
+  /// segmentation models.
+  void setMaskResolution(int resolution) {
+    super.ultralyticsYoloPlatform.setMaskResolution(resolution);
+  }
+
+  /// Only emits live detection results when the scene changes, sending the
+  /// added, moved and removed objects instead of every frame. The stream
+  /// still yields the full list of objects currently in view.
+  void setResultEmission({
+    required bool delta,
+    double iouTolerance = 0.9,
+    double confidenceTolerance = 0.05,
+  }) {
+    super.ultralyticsYoloPlatform.setResultEmission(
+          delta: delta,
+          iouTolerance: iouTolerance,
+          confidenceTolerance: confidenceTolerance,
+        );
+  }
+
+  /// Sends live detection results as packed binary frames instead of maps,
+  /// which reduces allocation and codec work on both sides of the channel.
+  void setBinaryResults({required bool enabled}) {
+    super.ultralyticsYoloPlatform.setBinaryResults(enabled: enabled);
+  }
+
+  /// Sets a per-frame [latency] target in milliseconds. The detector lowers
+  /// its input resolution while it runs over budget and raises it again when
+  /// there is headroom. Requires a model exported with a dynamic input shape,
+  /// other models throw a `PlatformException`.
+  Future<String?> setLatencyTarget(double latency, {List<int>? inputSizes}) =>
+      super
+          .ultralyticsYoloPlatform
+          .setLatencyTarget(latency, inputSizes: inputSizes);
+
+  /// Enables on-device tracking of live detections. The model only runs
+  /// every [detectionInterval] frames, or sooner when a track's confidence
+  /// decays below [minTrackConfidence], and the frames in between reuse the
+  /// predicted tracks. Every tracked [DetectedObject] carries a `trackId`.
+  /// Throws a `PlatformException` for models that are not detectors.
+  Future<String?> setTracking({
+    required bool enabled,
+    int detectionInterval = 3,
+    double minTrackConfidence = 0.35,
+  }) =>
+      super.ultralyticsYoloPlatform.setTracking(
+            enabled: enabled,
+            detectionInterval: detectionInterval,
+            minTrackConfidence: minTrackConfidence,
+          );
+
+  /// The stream of the input size currently used by the detector.
+  Stream<int>? get inputSize => super.ultralyticsYoloPlatform.inputSizeStream;
+
   /// Detects objects from the given [imagePath].
   Future<List<DetectedObject?>?> detect({required String imagePath}) =>
       super.ultralyticsYoloPlatform.detectImage(imagePath);
+
+  /// Detects objects in a high-resolution image by running the model on
+  /// overlapping square tiles of [tileSize] pixels, the model input size by
+  /// default, plus the whole image. Neighbouring tiles share [overlap] of the
+  /// tile size, and duplicates across tiles are merged with a global NMS.
+  /// Small objects that vanish when the whole image is scaled down to the
+  /// input size are still found.
+  Future<List<DetectedObject?>?> detectTiled({
+    required String imagePath,
+    int? tileSize,
+    double overlap = 0.2,
+  }) =>
+      super.ultralyticsYoloPlatform.detectImageTiled(
+            imagePath,
+            tileSize: tileSize,
+            overlap: overlap,
+          );
+
+  /// Detects objects in every image below [directoryPath], streaming one
+  /// event per file instead of collecting all results. Pass the checkpoint of
+  /// an earlier event as [resumeAfter] to continue an interrupted job.
+  /// Cancelling the subscription cancels the job.
+  Stream<DirectoryJobEvent<DetectedObject>> detectDirectory({
+    required String directoryPath,
+    String? resumeAfter,
+  }) =>
+      super.ultralyticsYoloPlatform.detectDirectory(
+            directoryPath,
+            resumeAfter: resumeAfter,
+          );
+
+  /// Detects objects in each of the given [imagePaths], batching several
+  /// images per inference when the model supports it.
+  Future<List<List<DetectedObject?>>?> detectAll({
+    required List<String> imagePaths,
+  }) =>
+      super.ultralyticsYoloPlatform.detectImages(imagePaths);
 }
@@ -0,0 +1,70 @@
+/// Kinds of [DirectoryJobEvent].
+enum DirectoryJobEventType {
+  /// A file was inferred.
+  result,
+
+  /// A file could not be decoded.
+  error,
+
+  /// The job finished or was cancelled. This is the last event of a job.
+  done,
+}
+
+/// Progress of a directory job, reported once per file and once at the end.
+class DirectoryJobEvent<T> {
+  /// Creates a [DirectoryJobEvent].
+  DirectoryJobEvent({
+    required this.type,
+    required this.processed,
+    required this.failed,
+    this.checkpoint,
+    this.path,
+    this.results,
+    this.message,
+    this.cancelled = false,
+  });
+
+  /// Creates a [DirectoryJobEvent] from a [json] object, using [parseResult]
+  /// to create each result.
+  factory DirectoryJobEvent.fromJson(
+    Map<dynamic, dynamic> json,
+    T Function(Map<dynamic, dynamic> json) parseResult,
+  ) =>
+      DirectoryJobEvent(
+        type: DirectoryJobEventType.values.byName(json['type'] as String),
+        processed: json['processed'] as int,
+        failed: json['failed'] as int,
+        checkpoint: json['checkpoint'] as String?,
+        path: json['path'] as String?,
+        results: (json['results'] as List?)
+            ?.map((result) => parseResult(result as Map))
+            .toList(),
+        message: json['message'] as String?,
+        cancelled: json['cancelled'] as bool? ?? false,
+      );
+
+  /// The kind of event.
+  final DirectoryJobEventType type;
+
+  /// The number of files inferred so far in this run.
+  final int processed;
+
+  /// The number of files that could not be decoded so far in this run.
+  final int failed;
+
+  /// The path of the last completed file, relative to the directory. Passing
+  /// it as `resumeAfter` continues a job with the next file.
+  final String? checkpoint;
+
+  /// The path of the file, relative to the directory.
+  final String? path;
+
+  /// The results of the file, for [DirectoryJobEventType.result] events.
+  final List<T>? results;
+
+  /// The reason a file failed, for [DirectoryJobEventType.error] events.
+  final String? message;
+
+  /// Whether the job was cancelled, for [DirectoryJobEventType.done] events.
+  final bool cancelled;
+}
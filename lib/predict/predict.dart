@@ -1 +1,3 @@
+export 'directory_job_event.dart';
 export 'predictor.dart';
+export 'telemetry_snapshot.dart';
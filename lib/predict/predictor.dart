@@ -1,3 +1,4 @@
+import 'package:ultralytics_yolo/predict/telemetry_snapshot.dart';
 import 'package:ultralytics_yolo/ultralytics_yolo_platform_interface.dart';
 import 'package:ultralytics_yolo/yolo_model.dart';
 
@@ -19,7 +20,111 @@ abstract class Predictor {
   /// The stream of the frames per second (FPS) rate.
   Stream<double>? get fpsRate => ultralyticsYoloPlatform.fpsRateStream;
 
+  /// The stream of telemetry snapshots combining inference time, FPS,
+  /// dropped frames and per-stage latencies.
+  Stream<TelemetrySnapshot>? get telemetry =>
+      ultralyticsYoloPlatform.telemetryStream;
+
+  /// Sets the [rate] in Hz at which telemetry snapshots are sent.
+  Future<String?> setTelemetryRate(double rate) =>
+      ultralyticsYoloPlatform.setTelemetryRate(rate);
+
+  /// Sets the maximum age in milliseconds of a live result before it is
+  /// dropped instead of being drawn late. Results never expire by default or
+  /// when [maxAge] is 0 or less.
+  Future<String?> setResultMaxAge(int maxAge) =>
+      ultralyticsYoloPlatform.setResultMaxAge(maxAge);
+
+  /// Controls what live inference does while none of the result, inference
+  /// time, FPS or telemetry streams has a listener, e.g. while the results
+  /// screen is in a background tab. This is enabled by default and stops
+  /// inference; a [heartbeatIntervalMs] above 0 keeps inferring one frame per
+  /// interval instead. Inference resumes as soon as a listener subscribes.
+  Future<String?> setIdleInference({
+    required bool enabled,
+    int heartbeatIntervalMs = 0,
+  }) =>
+      ultralyticsYoloPlatform.setIdleInference(
+        enabled: enabled,
+        heartbeatIntervalMs: heartbeatIntervalMs,
+      );
+
+  /// Lets the camera pipeline deliver RGBA frames, so live frames no longer
+  /// go through the YUV to RGB conversion on the analysis thread. The camera
+  /// is rebound if it is open.
+  Future<String?> setRgbaOutput({required bool enabled}) =>
+      ultralyticsYoloPlatform.setRgbaOutput(enabled: enabled);
+
+  /// Skips inference on live frames that barely changed since the last
+  /// inferred frame, measured as the mean luma difference (0-255) on a coarse
+  /// grid. The previous results stay on screen while the scene is static.
+  Future<String?> setMotionGate({required bool enabled, double threshold = 4}) =>
+      ultralyticsYoloPlatform.setMotionGate(
+        enabled: enabled,
+        threshold: threshold,
+      );
+
+  /// Starts recording begin and end events of the camera analyzer, bitmap
+  /// conversion, inference stages and result emission, keeping the last
+  /// [frames] frames.
+  Future<String?> startTrace({int frames = 300}) =>
+      ultralyticsYoloPlatform.startTrace(frames: frames);
+
+  /// Stops tracing and returns the path of a trace-event JSON file that opens
+  /// in Perfetto or `chrome://tracing`, or null if tracing was not started.
+  Future<String?> stopTrace() => ultralyticsYoloPlatform.stopTrace();
+
+  /// The latency percentiles of every pipeline stage since the last reset.
+  Future<Map<TelemetryStage, StageLatency>?> getStageLatencies() =>
+      ultralyticsYoloPlatform.getStageLatencies();
+
+  /// Resets the pipeline stage latency histograms.
+  Future<String?> resetStageLatencies() =>
+      ultralyticsYoloPlatform.resetStageLatencies();
+
+  /// The still-image bitmap pool counters: hits, misses, evictions, bytes
+  /// and maxBytes.
+  Future<Map<String, int>?> getBitmapPoolStats() =>
+      ultralyticsYoloPlatform.getBitmapPoolStats();
+
+  /// Sets the memory cap of the still-image bitmap pool.
+  Future<String?> setBitmapPoolLimit(int maxBytes) =>
+      ultralyticsYoloPlatform.setBitmapPoolLimit(maxBytes);
+
+  /// The still-image result cache counters: hits, misses, entries, bytes and
+  /// hitRate.
+  Future<Map<String, dynamic>?> getResultCacheStats() =>
+      ultralyticsYoloPlatform.getResultCacheStats();
+
+  /// Sets the entry and memory caps of the still-image result cache.
+  Future<String?> setResultCacheLimits({
+    required int maxEntries,
+    required int maxBytes,
+  }) =>
+      ultralyticsYoloPlatform.setResultCacheLimits(
+        maxEntries: maxEntries,
+        maxBytes: maxBytes,
+      );
+
+  /// Removes all cached still-image results.
+  Future<String?> clearResultCache() =>
+      ultralyticsYoloPlatform.clearResultCache();
+
+  /// The number of live results delivered, overwritten by a newer result
+  /// before delivery, and expired.
+  Future<Map<String, int>?> getResultStats() =>
+      ultralyticsYoloPlatform.getResultStats();
+
+  /// Resets the live result counters.
+  Future<String?> resetResultStats() =>
+      ultralyticsYoloPlatform.resetResultStats();
+
   /// Loads the model.
+  ///
+  /// On Android a model that is already loaded keeps serving the camera while
+  /// the new one loads in the background, and the future completes once the
+  /// new model has taken over. Predictor settings such as thresholds start
+  /// from their defaults again.
   Future<String?> loadModel({bool useGpu = false}) =>
       ultralyticsYoloPlatform.loadModel(model.toJson(), useGpu: useGpu);
 }
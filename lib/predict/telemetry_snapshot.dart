@@ -0,0 +1,96 @@
+import 'dart:typed_data';
+
+/// Pipeline metrics aggregated over one telemetry interval.
+class TelemetrySnapshot {
+  /// Creates a [TelemetrySnapshot].
+  TelemetrySnapshot({
+    required this.inferenceTime,
+    required this.frames,
+    required this.fps,
+    required this.droppedFrames,
+    required this.stageTimes,
+  });
+
+  /// Creates a [TelemetrySnapshot] from a [json] object.
+  factory TelemetrySnapshot.fromJson(Map<dynamic, dynamic> json) =>
+      TelemetrySnapshot(
+        inferenceTime: (json['inferenceTime'] as num).toDouble(),
+        frames: json['frames'] as int,
+        fps: (json['fps'] as num).toDouble(),
+        droppedFrames: json['droppedFrames'] as int,
+        stageTimes: json['stages'] as Float64List,
+      );
+
+  /// The mean inference time in milliseconds.
+  final double inferenceTime;
+
+  /// The number of frames processed during the interval.
+  final int frames;
+
+  /// The latest frames per second (FPS) rate.
+  final double fps;
+
+  /// The number of frames dropped during the interval: frames skipped by the
+  /// motion gate or by an input size switch, and results that were overwritten
+  /// by a newer one or expired before reaching Dart.
+  final int droppedFrames;
+
+  /// The mean time in milliseconds spent in each pipeline stage, indexed by
+  /// [TelemetryStage].
+  final Float64List stageTimes;
+
+  /// The mean time in milliseconds spent in the given [stage].
+  double stageTime(TelemetryStage stage) => stageTimes[stage.index];
+}
+
+/// Stages of the prediction pipeline reported by [TelemetrySnapshot].
+enum TelemetryStage {
+  /// YUV camera frame to bitmap conversion.
+  convert,
+
+  /// Rotation and scaling into the input bitmap.
+  preprocess,
+
+  /// Pixel normalization into the input tensor.
+  setInput,
+
+  /// Interpreter invocation.
+  inference,
+
+  /// Output decoding and NMS.
+  postprocess,
+
+  /// Result encoding and channel emission.
+  emit,
+}
+
+/// Latency percentiles of one pipeline stage since the last reset.
+class StageLatency {
+  /// Creates a [StageLatency].
+  StageLatency({
+    required this.count,
+    required this.p50,
+    required this.p95,
+    required this.p99,
+  });
+
+  /// Creates a [StageLatency] from a [json] object.
+  factory StageLatency.fromJson(Map<dynamic, dynamic> json) => StageLatency(
+        count: json['count'] as int,
+        p50: (json['p50'] as num).toDouble(),
+        p95: (json['p95'] as num).toDouble(),
+        p99: (json['p99'] as num).toDouble(),
+      );
+
+  /// The number of recorded samples.
+  final int count;
+
+  /// The median time in milliseconds.
+  final double p50;
+
+  /// The 95th percentile time in milliseconds.
+  final double p95;
+
+  /// The 99th percentile time in milliseconds.
+  final double p99;
+}
@@ -1,7 +1,12 @@
+import 'dart:async';
+import 'dart:ui';
+
 import 'package:flutter/foundation.dart';
 import 'package:flutter/services.dart';
 import 'package:ultralytics_yolo/predict/classify/classification_result.dart';
 import 'package:ultralytics_yolo/predict/detect/detected_object.dart';
+import 'package:ultralytics_yolo/predict/directory_job_event.dart';
+import 'package:ultralytics_yolo/predict/telemetry_snapshot.dart';
 
 import 'package:ultralytics_yolo/ultralytics_yolo_platform_interface.dart';
 
@@ -25,6 +30,29 @@ class PlatformChannelUltralyticsYolo implements UltralyticsYoloPlatform {
   @visibleForTesting
   final fpsRateEventChannel = const EventChannel('ultralytics_yolo_fps_rate');
 
+  /// The event channel used to stream the telemetry snapshots
+  @visibleForTesting
+  final telemetryEventChannel =
+      const EventChannel('ultralytics_yolo_telemetry');
+
+  /// The event channel used to stream the directory job events
+  @visibleForTesting
+  final directoryJobEventChannel =
+      const EventChannel('ultralytics_yolo_directory_results');
+
+  // Header of a binary detection frame:
+  // [frame number, detection count, floats per detection]
+  static const _binaryHeaderSize = 3;
+
+  /// Label table used to resolve the class indexes of binary frames
+  List<String> _labels = const [];
+
+  /// Whether a directory job stream is subscribed to the shared event channel
+  bool _directoryJobActive = false;
+
+  /// Objects currently on screen when results are emitted as deltas
+  final Map<int, DetectedObject> _deltaObjects = {};
+
   @override
   Future<String?> loadModel(
     Map<String, dynamic> model, {
@@ -50,6 +78,148 @@ class PlatformChannelUltralyticsYolo implements UltralyticsYoloPlatform {
   Future<String?> setNumItemsThreshold(int numItems) => methodChannel
       .invokeMethod<String>('setNumItemsThreshold', {'numItems': numItems});
 
+  @override
+  Future<String?> setClassFilter(List<int>? indices) => methodChannel
+      .invokeMethod<String>('setClassFilter', {'classes': indices});
+
+  @override
+  Future<String?> setZones(List<List<double>>? zones) =>
+      methodChannel.invokeMethod<String>('setZones', {'zones': zones});
+
+  @override
+  Future<String?> setTracking({
+    required bool enabled,
+    int detectionInterval = 3,
+    double minTrackConfidence = 0.35,
+  }) =>
+      methodChannel.invokeMethod<String>('setTracking', {
+        'enabled': enabled,
+        'detectionInterval': detectionInterval,
+        'minTrackConfidence': minTrackConfidence,
+      });
+
+  @override
+  Future<String?> setLatencyTarget(double latency, {List<int>? inputSizes}) =>
+      methodChannel.invokeMethod<String>('setLatencyTarget', {
+        'latency': latency,
+        'inputSizes': inputSizes,
+      });
+
+  @override
+  Future<String?> setMaskResolution(int resolution) => methodChannel
+      .invokeMethod<String>('setMaskResolution', {'resolution': resolution});
+
+  @override
+  Future<String?> setResultMaxAge(int maxAge) => methodChannel
+      .invokeMethod<String>('setResultMaxAge', {'maxAge': maxAge});
+
+  @override
+  Future<String?> setIdleInference({
+    required bool enabled,
+    int heartbeatIntervalMs = 0,
+  }) =>
+      methodChannel.invokeMethod<String>('setIdleInference', {
+        'enabled': enabled,
+        'heartbeatIntervalMs': heartbeatIntervalMs,
+      });
+
+  @override
+  Future<String?> setRgbaOutput({required bool enabled}) => methodChannel
+      .invokeMethod<String>('setRgbaOutput', {'enabled': enabled});
+
+  @override
+  Future<String?> setMotionGate({required bool enabled, double threshold = 4}) =>
+      methodChannel.invokeMethod<String>('setMotionGate', {
+        'enabled': enabled,
+        'threshold': threshold,
+      });
+
+  @override
+  Future<String?> startTrace({int frames = 300}) =>
+      methodChannel.invokeMethod<String>('startTrace', {'frames': frames});
+
+  @override
+  Future<String?> stopTrace() => methodChannel
+      .invokeMethod<String>('stopTrace')
+      .catchError((dynamic e) => null);
+
+  @override
+  Future<Map<TelemetryStage, StageLatency>?> getStageLatencies() async {
+    final stages = await methodChannel
+        .invokeListMethod<Map<dynamic, dynamic>>('getStageLatencies')
+        .catchError((_) => <Map<dynamic, dynamic>>[]);
+    if (stages == null) return null;
+
+    return {
+      for (final stage in TelemetryStage.values)
+        if (stage.index < stages.length)
+          stage: StageLatency.fromJson(stages[stage.index]),
+    };
+  }
+
+  @override
+  Future<String?> resetStageLatencies() =>
+      methodChannel.invokeMethod<String>('resetStageLatencies');
+
+  @override
+  Future<Map<String, int>?> getBitmapPoolStats() => methodChannel
+      .invokeMapMethod<String, int>('getBitmapPoolStats')
+      .catchError((_) => <String, int>{});
+
+  @override
+  Future<String?> setBitmapPoolLimit(int maxBytes) => methodChannel
+      .invokeMethod<String>('setBitmapPoolLimit', {'maxBytes': maxBytes});
+
+  @override
+  Future<Map<String, dynamic>?> getResultCacheStats() => methodChannel
+      .invokeMapMethod<String, dynamic>('getResultCacheStats')
+      .catchError((_) => <String, dynamic>{});
+
+  @override
+  Future<String?> setResultCacheLimits({
+    required int maxEntries,
+    required int maxBytes,
+  }) =>
+      methodChannel.invokeMethod<String>('setResultCacheLimits', {
+        'maxEntries': maxEntries,
+        'maxBytes': maxBytes,
+      });
+
+  @override
+  Future<String?> clearResultCache() =>
+      methodChannel.invokeMethod<String>('clearResultCache');
+
+  @override
+  Future<Map<String, int>?> getResultStats() => methodChannel
+      .invokeMapMethod<String, int>('getResultStats')
+      .catchError((_) => <String, int>{});
+
+  @override
+  Future<String?> resetResultStats() =>
+      methodChannel.invokeMethod<String>('resetResultStats');
+
+  @override
+  Future<String?> setTelemetryRate(double rate) =>
+      methodChannel.invokeMethod<String>('setTelemetryRate', {'rate': rate});
+
+  @override
+  Future<String?> setResultEmission({
+    required bool delta,
+    double iouTolerance = 0.9,
+    double confidenceTolerance = 0.05,
+  }) {
+    _deltaObjects.clear();
+    return methodChannel.invokeMethod<String>('setResultEmission', {
+      'mode': delta ? 'delta' : 'all',
+      'iouTolerance': iouTolerance,
+      'confidenceTolerance': confidenceTolerance,
+    });
+  }
+
+  @override
+  Future<String?> setBinaryResults({required bool enabled}) => methodChannel
+      .invokeMethod<String>('setBinaryResults', {'enabled': enabled});
+
   @override
   Future<String?> setZoomRatio(double ratio) =>
       methodChannel.invokeMethod<String>('setZoomRatio', {'ratio': ratio});
@@ -80,8 +250,17 @@ class PlatformChannelUltralyticsYolo implements UltralyticsYoloPlatform {
 
   @override
   Stream<List<DetectedObject?>?> get detectionResultStream =>
-      predictionResultsEventChannel.receiveBroadcastStream().map(
+      predictionResultsEventChannel.receiveBroadcastStream().where((result) {
+        if (result is Map && result.containsKey('labels')) {
+          _labels = List<String>.from(result['labels'] as List);
+          return false;
+        }
+        return true;
+      }).map(
         (result) {
+          if (result is Float32List) return _decodeBinaryDetections(result);
+          if (result is Map) return _applyDelta(result);
+
           final objects = <DetectedObject>[];
           result = result as List;
 
@@ -94,9 +273,69 @@ class PlatformChannelUltralyticsYolo implements UltralyticsYoloPlatform {
         },
       );
 
+  List<DetectedObject> _applyDelta(Map<dynamic, dynamic> delta) {
+    if (delta['type'] == 'cleared') {
+      _deltaObjects.clear();
+      return const [];
+    }
+    // Sent after the native side forgot its last frame, e.g. on a model load,
+    // and replaces every object held so far
+    if (delta['type'] == 'baseline') {
+      _deltaObjects.clear();
+      for (final json in delta['objects'] as List) {
+        final map = json as Map;
+        _deltaObjects[map['id'] as int] = DetectedObject.fromJson(map);
+      }
+      return _deltaObjects.values.toList();
+    }
+
+    for (final id in delta['removed'] as List) {
+      _deltaObjects.remove(id as int);
+    }
+    for (final json in [
+      ...delta['added'] as List,
+      ...delta['moved'] as List,
+    ]) {
+      final map = json as Map;
+      _deltaObjects[map['id'] as int] = DetectedObject.fromJson(map);
+    }
+
+    return _deltaObjects.values.toList();
+  }
+
+  List<DetectedObject> _decodeBinaryDetections(Float32List frame) {
+    final count = frame[1].toInt();
+    final stride = frame[2].toInt();
+    final objects = <DetectedObject>[];
+
+    for (var i = 0; i < count; i++) {
+      final offset = _binaryHeaderSize + i * stride;
+      final index = frame[offset + 5].toInt();
+      objects.add(
+        DetectedObject(
+          confidence: frame[offset + 4],
+          boundingBox: Rect.fromLTWH(
+            frame[offset],
+            frame[offset + 1],
+            frame[offset + 2],
+            frame[offset + 3],
+          ),
+          index: index,
+          label: index < _labels.length ? _labels[index] : '',
+          trackId: stride > 6 ? frame[offset + 6].toInt() : null,
+        ),
+      );
+    }
+
+    return objects;
+  }
+
   @override
   Stream<List<ClassificationResult?>?> get classificationResultStream =>
-      predictionResultsEventChannel.receiveBroadcastStream().map(
+      predictionResultsEventChannel
+          .receiveBroadcastStream()
+          .where((result) => result is List)
+          .map(
         (result) {
           final objects = <ClassificationResult>[];
           result = result as List;
@@ -111,9 +350,23 @@ class PlatformChannelUltralyticsYolo implements UltralyticsYoloPlatform {
       );
 
   @override
-  Stream<double>? get inferenceTimeStream => inferenceTimeEventChannel
+  Stream<double>? get inferenceTimeStream =>
+      inferenceTimeEventChannel.receiveBroadcastStream().map(
+            (time) => time is Map
+                ? (time['inferenceTime'] as num).toDouble()
+                : (time as num).toDouble(),
+          );
+
+  @override
+  Stream<int>? get inputSizeStream => inferenceTimeEventChannel
+      .receiveBroadcastStream()
+      .where((time) => time is Map)
+      .map((time) => (time as Map)['inputSize'] as int);
+
+  @override
+  Stream<TelemetrySnapshot>? get telemetryStream => telemetryEventChannel
       .receiveBroadcastStream()
-      .map((time) => (time as num).toDouble());
+      .map((snapshot) => TelemetrySnapshot.fromJson(snapshot as Map));
 
   @override
   Stream<double>? get fpsRateStream => fpsRateEventChannel
@@ -158,4 +411,138 @@ class PlatformChannelUltralyticsYolo implements UltralyticsYoloPlatform {
 
     return objects;
   }
-}
\ No newline at end of file
+
+  @override
+  Future<List<DetectedObject?>?> detectImageTiled(
+    String imagePath, {
+    int? tileSize,
+    double overlap = 0.2,
+  }) async {
+    final result =
+        await methodChannel.invokeMethod<List<Object?>>('detectImageTiled', {
+      'imagePath': imagePath,
+      'tileSize': tileSize,
+      'overlap': overlap,
+    }).catchError((_) {
+      return <DetectedObject?>[];
+    });
+
+    return result
+        ?.map((json) => DetectedObject.fromJson(json! as Map))
+        .toList();
+  }
+
+  @override
+  Future<List<List<DetectedObject?>>?> detectImages(
+    List<String> imagePaths,
+  ) async {
+    final result =
+        await methodChannel.invokeMethod<List<Object?>>('detectImages', {
+      'imagePaths': imagePaths,
+    }).catchError((_) {
+      return <Object?>[];
+    });
+
+    return result?.map((image) {
+      final objects = <DetectedObject>[];
+      for (final json in image! as List) {
+        objects.add(DetectedObject.fromJson(json as Map));
+      }
+      return objects;
+    }).toList();
+  }
+
+  @override
+  Stream<DirectoryJobEvent<DetectedObject>> detectDirectory(
+    String directoryPath, {
+    String? resumeAfter,
+  }) =>
+      _runDirectoryJob(
+        'detectDirectory',
+        directoryPath,
+        resumeAfter,
+        DetectedObject.fromJson,
+      );
+
+  @override
+  Stream<DirectoryJobEvent<ClassificationResult>> classifyDirectory(
+    String directoryPath, {
+    String? resumeAfter,
+  }) =>
+      _runDirectoryJob(
+        'classifyDirectory',
+        directoryPath,
+        resumeAfter,
+        (json) =>
+            ClassificationResult.fromJson(Map<String, dynamic>.from(json)),
+      );
+
+  @override
+  Future<String?> cancelDirectoryJob() =>
+      methodChannel.invokeMethod<String>('cancelDirectoryJob');
+
+  Stream<DirectoryJobEvent<T>> _runDirectoryJob<T>(
+    String method,
+    String directoryPath,
+    String? resumeAfter,
+    T Function(Map<dynamic, dynamic> json) parseResult,
+  ) {
+    late final StreamController<DirectoryJobEvent<T>> controller;
+    StreamSubscription<dynamic>? subscription;
+    var finished = false;
+
+    void finish() {
+      finished = true;
+      _directoryJobActive = false;
+      subscription?.cancel();
+      controller.close();
+    }
+
+    controller = StreamController<DirectoryJobEvent<T>>(
+      onListen: () {
+        // Every job shares one event channel, so a second job must not touch
+        // it: cancelling its subscription would end the running job's stream
+        if (_directoryJobActive) {
+          finished = true;
+          controller
+            ..addError(
+              PlatformException(
+                code: 'PredictorError',
+                message: 'A directory job is already running',
+              ),
+            )
+            ..close();
+          return;
+        }
+        _directoryJobActive = true;
+
+        // Listen before starting the job so no event is missed
+        subscription =
+            directoryJobEventChannel.receiveBroadcastStream().listen((event) {
+          final jobEvent =
+              DirectoryJobEvent<T>.fromJson(event as Map, parseResult);
+          controller.add(jobEvent);
+          if (jobEvent.type == DirectoryJobEventType.done) finish();
+        });
+
+        methodChannel.invokeMethod<String>(method, {
+          'directoryPath': directoryPath,
+          'resumeAfter': resumeAfter,
+        }).catchError((Object error) {
+          controller.addError(error);
+          finish();
+          return null;
+        });
+      },
+      onCancel: () {
+        if (finished) return null;
+        finished = true;
+        _directoryJobActive = false;
+        subscription?.cancel();
+        return cancelDirectoryJob();
+      },
+    );
+
+    return controller.stream;
+  }
+}
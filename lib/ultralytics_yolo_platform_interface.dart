@@ -1,6 +1,8 @@
 import 'package:plugin_platform_interface/plugin_platform_interface.dart';
 import 'package:ultralytics_yolo/predict/classify/classification_result.dart';
 import 'package:ultralytics_yolo/predict/detect/detected_object.dart';
+import 'package:ultralytics_yolo/predict/directory_job_event.dart';
+import 'package:ultralytics_yolo/predict/telemetry_snapshot.dart';
 import 'package:ultralytics_yolo/ultralytics_yolo_platform_channel.dart';
 
 /// The interface that implementations of ultralytics_yolo must implement.
@@ -47,6 +49,163 @@ abstract class UltralyticsYoloPlatform extends PlatformInterface {
     throw UnimplementedError('setNumItemsThreshold has not been implemented.');
   }
 
+  /// Only score the given class [indices] when decoding detections. Null or
+  /// an empty list scores every class again.
+  Future<String?> setClassFilter(List<int>? indices) {
+    throw UnimplementedError('setClassFilter has not been implemented.');
+  }
+
+  /// Only keep detections whose box center lies inside one of the [zones].
+  /// Each zone is a polygon of at least three points given as
+  /// `[x0, y0, x1, y1, ...]` in fractions of the image width and height. Null
+  /// or an empty list covers the whole image again.
+  Future<String?> setZones(List<List<double>>? zones) {
+    throw UnimplementedError('setZones has not been implemented.');
+  }
+
+  /// Set a per-frame [latency] target in milliseconds. The detector switches
+  /// between the given [inputSizes] (or a default ladder derived from the
+  /// model `imgsz`) to stay within it. A [latency] of 0 disables it.
+  Future<String?> setLatencyTarget(double latency, {List<int>? inputSizes}) {
+    throw UnimplementedError('setLatencyTarget has not been implemented.');
+  }
+
+  /// Enables on-device tracking of live detections. The model runs every
+  /// [detectionInterval] frames, or sooner once a track's confidence decays
+  /// below [minTrackConfidence]; the frames in between only advance the
+  /// tracks. Tracked detections carry a persistent track ID.
+  Future<String?> setTracking({
+    required bool enabled,
+    int detectionInterval = 3,
+    double minTrackConfidence = 0.35,
+  }) {
+    throw UnimplementedError('setTracking has not been implemented.');
+  }
+
+  /// Set the [resolution] of the masks produced by segmentation models. It
+  /// must be positive, and values above 256 are clamped.
+  Future<String?> setMaskResolution(int resolution) {
+    throw UnimplementedError('setMaskResolution has not been implemented.');
+  }
+
+  /// Set the maximum age in milliseconds of a live result. Older results are
+  /// dropped instead of being delivered late. Results never expire by default
+  /// or when [maxAge] is 0 or less, since on slow devices every result could
+  /// otherwise be older than the limit.
+  Future<String?> setResultMaxAge(int maxAge) {
+    throw UnimplementedError('setResultMaxAge has not been implemented.');
+  }
+
+  /// Idle live inference while no result, inference time, FPS or telemetry
+  /// stream has a listener. With a [heartbeatIntervalMs] of 0 inference stops
+  /// entirely, otherwise one frame per interval is still inferred.
+  Future<String?> setIdleInference({
+    required bool enabled,
+    int heartbeatIntervalMs = 0,
+  }) {
+    throw UnimplementedError('setIdleInference has not been implemented.');
+  }
+
+  /// Request RGBA frames from the camera pipeline instead of YUV, which moves
+  /// the color conversion off the analysis thread.
+  Future<String?> setRgbaOutput({required bool enabled}) {
+    throw UnimplementedError('setRgbaOutput has not been implemented.');
+  }
+
+  /// Skip live frames whose luma differs from the last inferred frame by less
+  /// than [threshold] on average (0-255). Skipped frames keep the previous
+  /// results.
+  Future<String?> setMotionGate({required bool enabled, double threshold = 4}) {
+    throw UnimplementedError('setMotionGate has not been implemented.');
+  }
+
+  /// Start recording a pipeline trace that keeps the last [frames] frames.
+  Future<String?> startTrace({int frames = 300}) {
+    throw UnimplementedError('startTrace has not been implemented.');
+  }
+
+  /// Stop recording the pipeline trace and return the path of the trace
+  /// JSON file.
+  Future<String?> stopTrace() {
+    throw UnimplementedError('stopTrace has not been implemented.');
+  }
+
+  /// Get the latency percentiles of every pipeline stage since the last
+  /// reset.
+  Future<Map<TelemetryStage, StageLatency>?> getStageLatencies() {
+    throw UnimplementedError('getStageLatencies has not been implemented.');
+  }
+
+  /// Reset the pipeline stage latency histograms.
+  Future<String?> resetStageLatencies() {
+    throw UnimplementedError('resetStageLatencies has not been implemented.');
+  }
+
+  /// Get the still-image bitmap pool counters: hits, misses, evictions, bytes
+  /// and maxBytes.
+  Future<Map<String, int>?> getBitmapPoolStats() {
+    throw UnimplementedError('getBitmapPoolStats has not been implemented.');
+  }
+
+  /// Set the memory cap of the still-image bitmap pool.
+  Future<String?> setBitmapPoolLimit(int maxBytes) {
+    throw UnimplementedError('setBitmapPoolLimit has not been implemented.');
+  }
+
+  /// Get the still-image result cache counters: hits, misses, entries, bytes
+  /// and hitRate.
+  Future<Map<String, dynamic>?> getResultCacheStats() {
+    throw UnimplementedError('getResultCacheStats has not been implemented.');
+  }
+
+  /// Set the entry and memory caps of the still-image result cache.
+  Future<String?> setResultCacheLimits({
+    required int maxEntries,
+    required int maxBytes,
+  }) {
+    throw UnimplementedError('setResultCacheLimits has not been implemented.');
+  }
+
+  /// Remove all cached still-image results and reset the cache counters.
+  Future<String?> clearResultCache() {
+    throw UnimplementedError('clearResultCache has not been implemented.');
+  }
+
+  /// Get the number of live results that were delivered, overwritten by a
+  /// newer result before delivery, or expired.
+  Future<Map<String, int>?> getResultStats() {
+    throw UnimplementedError('getResultStats has not been implemented.');
+  }
+
+  /// Reset the live result counters.
+  Future<String?> resetResultStats() {
+    throw UnimplementedError('resetResultStats has not been implemented.');
+  }
+
+  /// Set the [rate] in Hz at which telemetry snapshots are sent.
+  Future<String?> setTelemetryRate(double rate) {
+    throw UnimplementedError('setTelemetryRate has not been implemented.');
+  }
+
+  /// Only emit live detection results when they change. With [delta], frames
+  /// whose boxes all overlap the last emitted ones by at least [iouTolerance]
+  /// with confidences within [confidenceTolerance] are skipped, and other
+  /// frames only carry the added, moved and removed objects.
+  Future<String?> setResultEmission({
+    required bool delta,
+    double iouTolerance = 0.9,
+    double confidenceTolerance = 0.05,
+  }) {
+    throw UnimplementedError('setResultEmission has not been implemented.');
+  }
+
+  /// Enable or disable binary encoding of live detection results. When
+  /// [enabled], every frame is sent as a single packed float buffer and the
+  /// label table is only sent when the model loads.
+  Future<String?> setBinaryResults({required bool enabled}) {
+    throw UnimplementedError('setBinaryResults has not been implemented.');
+  }
+
   /// Set the zoom ratio for the camera preview.
   Future<String?> setZoomRatio(double ratio) {
     throw UnimplementedError('setZoomRatio has not been implemented.');
@@ -67,7 +226,7 @@ abstract class UltralyticsYoloPlatform extends PlatformInterface {
     throw UnimplementedError('startCamera has not been implemented.');
   }
 
-  /// Start the live prediction.
+  /// Pause the live prediction.
   Future<String?> pauseLivePrediction() {
     throw UnimplementedError('pauseLivePrediction has not been implemented.');
   }
@@ -87,6 +246,48 @@ abstract class UltralyticsYoloPlatform extends PlatformInterface {
     throw UnimplementedError('detectImage has not been implemented.');
   }
 
+  /// Detect objects in overlapping tiles of [imagePath] of [tileSize] pixels,
+  /// the model input size by default, merging the tiles with a global NMS.
+  Future<List<DetectedObject?>?> detectImageTiled(
+    String imagePath, {
+    int? tileSize,
+    double overlap = 0.2,
+  }) {
+    throw UnimplementedError('detectImageTiled has not been implemented.');
+  }
+
+  /// Detect objects in each of the given [imagePaths]. Images are batched
+  /// into a single inference call when the model has a batch dimension.
+  Future<List<List<DetectedObject?>>?> detectImages(List<String> imagePaths) {
+    throw UnimplementedError('detectImages has not been implemented.');
+  }
+
+  /// Detect objects in every image below [directoryPath], one event per
+  /// file. With [resumeAfter] set to the checkpoint of an earlier run, the job
+  /// continues with the file after it. Cancelling the subscription cancels
+  /// the job. Only one job runs at a time, the stream of a second job fails
+  /// with a PredictorError while another one is subscribed.
+  Stream<DirectoryJobEvent<DetectedObject>> detectDirectory(
+    String directoryPath, {
+    String? resumeAfter,
+  }) {
+    throw UnimplementedError('detectDirectory has not been implemented.');
+  }
+
+  /// Classify every image below [directoryPath], one event per file. See
+  /// [detectDirectory].
+  Stream<DirectoryJobEvent<ClassificationResult>> classifyDirectory(
+    String directoryPath, {
+    String? resumeAfter,
+  }) {
+    throw UnimplementedError('classifyDirectory has not been implemented.');
+  }
+
+  /// Cancel the running directory job after the file in progress.
+  Future<String?> cancelDirectoryJob() {
+    throw UnimplementedError('cancelDirectoryJob has not been implemented.');
+  }
+
   /// Stream of classification results.
   Stream<List<ClassificationResult?>?> get classificationResultStream {
     throw UnimplementedError(
@@ -104,6 +305,18 @@ abstract class UltralyticsYoloPlatform extends PlatformInterface {
     throw UnimplementedError('inferenceTimeStream has not been implemented.');
   }
 
+  /// Stream of the model input size currently used by the detector.
+  /// Only emits while a latency target is set.
+  Stream<int>? get inputSizeStream {
+    throw UnimplementedError('inputSizeStream has not been implemented.');
+  }
+
+  /// Stream of telemetry snapshots sent at the rate set with
+  /// [setTelemetryRate].
+  Stream<TelemetrySnapshot>? get telemetryStream {
+    throw UnimplementedError('telemetryStream has not been implemented.');
+  }
+
   /// Stream of frames per second (FPS) rate.
   Stream<double>? get fpsRateStream {
     throw UnimplementedError('fpsRateStream has not been implemented.');
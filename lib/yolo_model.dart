@@ -15,6 +15,9 @@ enum Task {
   /// Object Detection task.
   detect('detect'),
 
+  /// Instance segmentation task.
+  segment('segment'),
+
   /// Pose estimation task.
   pose('pose');
 